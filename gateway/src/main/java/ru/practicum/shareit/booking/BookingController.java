@@ -1,10 +1,16 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
@@ -14,27 +20,40 @@ import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.booking.dto.BookingCreateRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.util.List;
+
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
-@RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-public class BookingController {
-    private final BookingClient client;
+public abstract class BookingController<R> {
+    // Совпадает с shareit.booking.max-batch-size сервера по умолчанию
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final BookingClient<R> client;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> create(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
+    public R create(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
             @RequestBody @Valid BookingCreateRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return client.create(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public R createAll(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+            List<@NotNull @Valid BookingCreateRequestDto> requestDtos) {
+        log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+        return client.createAll(userId, requestDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> approve(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
+    public R approve(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
             @PathVariable @Positive @NotNull long bookingId,
             @RequestParam boolean approved) {
         log.info("Получен запрос на подтверждение бронирования с id={} от пользователя с id={}", bookingId, userId);
@@ -43,7 +62,7 @@ public class BookingController {
 
     @GetMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> get(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
+    public R get(@RequestHeader(OWNER_HEADER) @Positive @NotNull long userId,
             @PathVariable @Positive @NotNull long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return client.get(userId, bookingId);
@@ -51,26 +70,45 @@ public class BookingController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getAllByUser(@RequestHeader(OWNER_HEADER) long userId,
+    public R getAllByUser(@RequestHeader(OWNER_HEADER) long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return client.getAllByUser(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size,
+                cursor);
+        return client.getAllByUser(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getAllByOwner(@RequestHeader(OWNER_HEADER) Long userId,
+    public R getAllByOwner(@RequestHeader(OWNER_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String stateParam,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Получен запрос на получение всех бронирований владельца с id={}, state={}, from={}, size={}", userId,
-                state, from, size);
-        return client.getAllByOwner(userId, state, from, size);
+        log.info("Получен запрос на получение всех бронирований владельца с id={}, state={}, from={}, size={}, "
+                + "cursor={}", userId, state, from, size, cursor);
+        return client.getAllByOwner(userId, state, from, size, cursor);
+    }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Blocking extends BookingController<ResponseEntity<byte[]>> {
+        Blocking(BookingClient<ResponseEntity<byte[]>> client) {
+            super(client);
+        }
+    }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive extends BookingController<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+        Reactive(BookingClient<Mono<ResponseEntity<Flux<DataBuffer>>>> client) {
+            super(client);
+        }
     }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.coalescing")
+public class CoalescingProperties {
+    /**
+     * Маршруты GET, одинаковые одновременные запросы к которым объединяются в один запрос к серверу:
+     * шаблоны путей Ant без строки запроса, например /requests/*. Пустой список отключает объединение.
+     */
+    private List<String> routes = List.of("/items/search", "/requests/all");
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.client;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Заголовки ответа сервера, которые шлюз передаёт клиенту вместе с телом без изменений.
+ */
+final class ForwardedHeaders {
+    // Заголовки описывают соединение с сервером, а не ответ, поэтому клиенту шлюза не передаются
+    private static final Set<String> HOP_BY_HOP_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        HOP_BY_HOP_HEADERS.addAll(List.of(HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.UPGRADE));
+    }
+
+    private ForwardedHeaders() {
+    }
+
+    static void copy(HttpHeaders serverHeaders, HttpHeaders gatewayHeaders) {
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                gatewayHeaders.addAll(name, values);
+            }
+        });
+    }
+}
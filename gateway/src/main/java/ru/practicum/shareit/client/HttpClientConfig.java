@@ -0,0 +1,154 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Общий для всех клиентов пул соединений с сервером в блокирующем режиме шлюза. Помимо метрик самого пула
+ * (httpcomponents.httpclient.pool.*) учитывается время ожидания свободного соединения.
+ *
+ * <p>Свободного соединения запрос ждёт на семафоре, а не в synchronized LeaseRequest.get пула:
+ * на виртуальном потоке ожидание внутри монитора заняло бы несущий поток до выдачи соединения.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HttpClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager shareItServerConnectionManager(HttpClientProperties properties,
+                                                                             MeterRegistry meterRegistry) {
+        Timer waitTimer = Timer.builder("shareit.gateway.http.pool.wait")
+                .description("Ожидание свободного соединения с сервером")
+                .tag("pool", POOL_NAME)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        // Все клиенты ходят на один адрес, поэтому пул ограничен меньшим из двух лимитов
+        int maxConnections = Math.min(properties.getMaxConnections(), properties.getMaxConnectionsPerRoute());
+        PoolingHttpClientConnectionManager connectionManager =
+                new LeaseLimitingConnectionManager(maxConnections, waitTimer);
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(properties.getConnectTimeout()))
+                .setSocketTimeout(toTimeout(properties.getReadTimeout()))
+                .setValidateAfterInactivity(toTimeValue(properties.getValidateAfterInactivity()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient shareItServerHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                       HttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(toTimeout(properties.getPoolWaitTimeout()))
+                        .setResponseTimeout(toTimeout(properties.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(properties.getMaxIdleTime()))
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory shareItServerRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue toTimeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+
+    // Разрешение семафора выдаётся на время аренды соединения и возвращается после его возврата в пул,
+    // поэтому пул к моменту lease всегда имеет свободное место и не блокирует
+    private static class LeaseLimitingConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Semaphore permits;
+        private final Timer waitTimer;
+
+        LeaseLimitingConnectionManager(int maxConnections, Timer waitTimer) {
+            this.permits = new Semaphore(maxConnections, true);
+            this.waitTimer = waitTimer;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            return new LeaseRequest() {
+                private volatile LeaseRequest poolRequest;
+
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    acquirePermit(timeout);
+                    try {
+                        poolRequest = LeaseLimitingConnectionManager.super.lease(id, route, requestTimeout, state);
+                        return poolRequest.get(timeout);
+                    } catch (InterruptedException | ExecutionException | TimeoutException | RuntimeException e) {
+                        permits.release();
+                        throw e;
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    LeaseRequest request = poolRequest;
+                    return request != null && request.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void release(ConnectionEndpoint endpoint, Object state, TimeValue keepAlive) {
+            try {
+                super.release(endpoint, state, keepAlive);
+            } finally {
+                permits.release();
+            }
+        }
+
+        private void acquirePermit(Timeout timeout) throws InterruptedException, TimeoutException {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                if (Timeout.isPositive(timeout)) {
+                    acquired = permits.tryAcquire(timeout.toMilliseconds(), TimeUnit.MILLISECONDS);
+                } else {
+                    permits.acquire();
+                    acquired = true;
+                }
+            } finally {
+                waitTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+            if (!acquired) {
+                throw new TimeoutException("Нет свободного соединения с сервером в течение " + timeout);
+            }
+        }
+    }
+}
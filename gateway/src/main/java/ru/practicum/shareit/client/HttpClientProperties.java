@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    /**
+     * Сколько соединений с сервером держать в пуле всего; по умолчанию по числу потоков Tomcat шлюза,
+     * поэтому запрос не ждёт соединения, пока сервер отвечает вовремя. В реактивном режиме соединение
+     * не занимает поток, и лимит стоит поднять до числа запросов, которое готов принять сервер.
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Сколько соединений допускается на один адрес; все клиенты ходят на один сервер, поэтому по умолчанию равно общему.
+     */
+    private int maxConnectionsPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Сколько ждать ответа сервера после отправки запроса.
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Сколько ждать свободного соединения, когда пул исчерпан; затем запрос завершается ошибкой.
+     * С виртуальными потоками Tomcat не ограничивает число одновременных запросов, и лишние ждут здесь.
+     */
+    private Duration poolWaitTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Через сколько простоя соединение закрывается фоновой очисткой пула.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * После какого простоя соединение проверяется перед выдачей из пула.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых одновременных GET-запросов к маршрутам из {@link CoalescingProperties}: пока запрос
+ * к серверу выполняется, такие же запросы не отправляются, а получают его ответ.
+ *
+ * <p>Запросы одинаковы, если совпадают путь, параметры, пользователь и If-None-Match, то есть всё,
+ * что шлюз передаёт серверу. Ответ общий для всех получателей и не должен изменяться.
+ *
+ * <p>Счётчик shareit.gateway.coalescing.requests с тегами route и result: forwarded — отправлен серверу,
+ * collapsed — получил ответ другого запроса.
+ */
+@Component
+public class RequestCoalescer {
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> forwarded = new LinkedHashMap<>();
+    private final Map<String, Counter> collapsed = new LinkedHashMap<>();
+    private final Map<Key, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        for (String route : properties.getRoutes()) {
+            forwarded.put(route, meterRegistry.counter("shareit.gateway.coalescing.requests",
+                    "route", route, "result", "forwarded"));
+            collapsed.put(route, meterRegistry.counter("shareit.gateway.coalescing.requests",
+                    "route", route, "result", "collapsed"));
+        }
+    }
+
+    /**
+     * Шаблон маршрута, к которому относится запрос, или null, если запрос не объединяется.
+     */
+    @Nullable
+    public String route(HttpMethod method, String path) {
+        if (method != HttpMethod.GET) {
+            return null;
+        }
+        int queryStart = path.indexOf('?');
+        String pathWithoutQuery = queryStart >= 0 ? path.substring(0, queryStart) : path;
+        for (String route : forwarded.keySet()) {
+            if (pathMatcher.match(route, pathWithoutQuery)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Выполняет call, если такой же запрос сейчас не выполняется, иначе возвращает результат выполняющегося.
+     * Для блокирующего вызова call выполняется в потоке первого запроса. Любая ошибка call, в том числе
+     * {@link Error}, завершает результат и освобождает ключ, иначе следующие такие же запросы ждали бы вечно.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<V> coalesce(String route, String path, @Nullable Map<String, Object> parameters,
+                                             @Nullable Long userId, @Nullable String ifNoneMatch,
+                                             Supplier<CompletableFuture<V>> call) {
+        Key key = new Key(path, parameters, userId, ifNoneMatch);
+        CompletableFuture<V> result = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, result);
+        if (existing != null) {
+            collapsed.get(route).increment();
+            return (CompletableFuture<V>) existing;
+        }
+        forwarded.get(route).increment();
+        CompletableFuture<V> response;
+        try {
+            response = call.get();
+        } catch (Throwable e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((value, error) -> {
+            // Запрос, пришедший после ответа, отправляется серверу заново и получит свежие данные
+            inFlight.remove(key, result);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private record Key(String path, Map<String, Object> parameters, Long userId, String ifNoneMatch) {
+    }
+}
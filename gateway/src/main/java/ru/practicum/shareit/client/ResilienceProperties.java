@@ -0,0 +1,75 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+    private Breaker circuitBreaker = new Breaker();
+
+    /**
+     * Сколько запросов к ресурсу (items, bookings, users, requests) может одновременно выполняться на сервере.
+     * По умолчанию в сумме равно числу потоков Tomcat шлюза, поэтому медленный ресурс не занимает потоки других.
+     * В реактивном режиме и с виртуальными потоками лимиты можно поднять. items-import — лимит
+     * одновременных импортов POST /items/import, которые держат поток шлюза на всё время загрузки.
+     */
+    private Map<String, Integer> bulkheads = new HashMap<>(Map.of(
+            "items", 80,
+            "bookings", 60,
+            "users", 30,
+            "requests", 30,
+            "items-import", 4
+    ));
+
+    /**
+     * Лимит одновременных запросов к ресурсу, которого нет в bulkheads.
+     */
+    private int defaultBulkhead = 30;
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        /**
+         * Доля неудачных запросов (ошибка соединения, таймаут или ответ 5xx), в процентах, при которой
+         * запросы к ресурсу перестают отправляться.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * Доля медленных запросов, в процентах, при которой запросы к ресурсу перестают отправляться.
+         */
+        private float slowCallRateThreshold = 80;
+
+        /**
+         * Запрос дольше этого считается медленным.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+
+        /**
+         * По скольким последним запросам считаются доли.
+         */
+        private int slidingWindowSize = 50;
+
+        /**
+         * Сколько запросов должно быть в окне, прежде чем доли начнут учитываться.
+         */
+        private int minimumNumberOfCalls = 20;
+
+        /**
+         * Сколько запросы отклоняются сразу, прежде чем несколько пробных снова уйдут на сервер.
+         */
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+
+        /**
+         * Сколько пробных запросов решают, закрыть ли размыкатель снова.
+         */
+        private int permittedCallsInHalfOpenState = 5;
+    }
+}
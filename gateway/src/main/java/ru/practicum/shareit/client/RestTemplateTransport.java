@@ -0,0 +1,170 @@
+package ru.practicum.shareit.client;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
+import ru.practicum.shareit.Constant;
+import ru.practicum.shareit.exception.ServerUnavailableException;
+
+/**
+ * Блокирующая передача через RestTemplate: поток запроса шлюза ждёт ответа сервера.
+ *
+ * <p>Тело ответа читается байтами и передаётся клиенту без разбора JSON и повторной сериализации,
+ * вместе с заголовками сервера, при любом статусе ответа.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RestTemplateTransport implements ServerTransport<ResponseEntity<byte[]>> {
+    private final RestTemplate rest;
+    private final RequestCoalescer coalescer;
+    private final ServerCallGuard guard;
+    private final Duration readTimeout;
+
+    public RestTemplateTransport(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                                 ClientHttpRequestFactory requestFactory, RequestCoalescer coalescer,
+                                 ServerCallGuard guard, HttpClientProperties httpClientProperties) {
+        this.rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(() -> requestFactory)
+                .errorHandler(new PassthroughErrorHandler())
+                .build();
+        this.coalescer = coalescer;
+        this.guard = guard;
+        this.readTimeout = httpClientProperties.getReadTimeout();
+    }
+
+    @Override
+    public ResponseEntity<byte[]> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                           @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (method == HttpMethod.GET) {
+            forwardIfNoneMatch(headers);
+        }
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+
+        String route = coalescer.route(method, path);
+        if (route == null) {
+            return send(method, path, parameters, requestEntity);
+        }
+        CompletableFuture<ResponseEntity<byte[]>> response = coalescer.coalesce(route, path, parameters, userId,
+                headers.getFirst(HttpHeaders.IF_NONE_MATCH),
+                () -> CompletableFuture.completedFuture(send(method, path, parameters, requestEntity)));
+        // Первый запрос получает уже завершённый результат, остальные ждут его не дольше таймаута чтения
+        try {
+            return response.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServerUnavailableException("Сервер не ответил вовремя на запрос к " + path,
+                    Duration.ofSeconds(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание ответа сервера прервано", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<byte[]> forwardBody(String path, long userId, MediaType contentType) {
+        HttpServletRequest clientRequest =
+                ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        ResponseExtractor<ResponseEntity<byte[]>> extractor = rest.responseEntityExtractor(byte[].class);
+        return guard.executeLimited(path, () -> prepareGatewayResponse(rest.execute(path, HttpMethod.POST,
+                request -> {
+                    request.getHeaders().addAll(defaultHeaders(userId));
+                    request.getHeaders().setContentType(contentType);
+                    long contentLength = clientRequest.getContentLengthLong();
+                    if (contentLength >= 0) {
+                        request.getHeaders().setContentLength(contentLength);
+                    }
+                    if (request instanceof StreamingHttpOutputMessage streaming) {
+                        streaming.setBody(out -> clientRequest.getInputStream().transferTo(out));
+                    } else {
+                        clientRequest.getInputStream().transferTo(request.getBody());
+                    }
+                }, extractor)));
+    }
+
+    private ResponseEntity<byte[]> send(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                        HttpEntity<Object> requestEntity) {
+        return guard.execute(path, () -> {
+            ResponseEntity<byte[]> shareitServerResponse;
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+            return prepareGatewayResponse(shareitServerResponse);
+        });
+    }
+
+    private HttpHeaders defaultHeaders(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set(Constant.OWNER_HEADER, String.valueOf(userId));
+        }
+        return headers;
+    }
+
+    // Тег клиента передаётся серверу, чтобы неизменившийся ответ вернулся как 304 без тела
+    private static void forwardIfNoneMatch(HttpHeaders headers) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            String ifNoneMatch = attributes.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
+        }
+    }
+
+    private static ResponseEntity<byte[]> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> ForwardedHeaders.copy(response.getHeaders(), headers))
+                .body(response.getBody());
+    }
+
+    // Ошибки сервера передаются клиенту как есть, вместе с телом, поэтому исключением не оборачиваются
+    private static class PassthroughErrorHandler implements ResponseErrorHandler {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+
+        @Override
+        public void handleError(ClientHttpResponse response) {
+        }
+    }
+}
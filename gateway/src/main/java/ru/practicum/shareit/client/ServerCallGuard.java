@@ -0,0 +1,146 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.ServerUnavailableException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Размыкатель (circuit breaker) и ограничение одновременных запросов (bulkhead) для каждого ресурса сервера:
+ * items, bookings, users, requests — по первому сегменту пути.
+ *
+ * <p>Размыкатель перестаёт отправлять запросы к ресурсу, когда среди последних запросов слишком много
+ * неудачных или медленных, и через wait-in-open-state пропускает несколько пробных. Пока он разомкнут или
+ * ресурс исчерпал свой лимит одновременных запросов, шлюз сразу отвечает 503, не занимая поток ожиданием
+ * сервера. Лимит проверяется раньше размыкателя, поэтому отказ по лимиту не считается неудачей сервера.
+ *
+ * <p>Долгие по своей природе запросы, как импорт вещей, проходят только через лимит одновременных запросов
+ * (executeLimited): по их времени нельзя судить о состоянии сервера, и размыкатель их не учитывает. Лимит у них
+ * свой для каждого пути, /items/import — items-import, чтобы импорт не занимал лимит обычных запросов к items.
+ *
+ * <p>Метрики resilience4j.circuitbreaker.* (в том числе state) и resilience4j.bulkhead.* с тегом name —
+ * именем ресурса.
+ */
+@Component
+public class ServerCallGuard {
+    private final ResilienceProperties properties;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+
+    public ServerCallGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        ResilienceProperties.Breaker breaker = properties.getCircuitBreaker();
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slowCallRateThreshold(breaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(breaker.getSlowCallDuration())
+                .waitDurationInOpenState(breaker.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(breaker.getPermittedCallsInHalfOpenState())
+                .recordResult(ServerCallGuard::isServerError)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getDefaultBulkhead())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        // Известные ресурсы создаются сразу, чтобы их метрики были видны до первого запроса
+        properties.getBulkheads().keySet().forEach(resource -> {
+            circuitBreakers.circuitBreaker(resource);
+            bulkhead(resource);
+        });
+    }
+
+    public <T> T execute(String path, Supplier<T> call) {
+        String resource = resource(path);
+        Supplier<T> guarded = Bulkhead.decorateSupplier(bulkhead(resource),
+                CircuitBreaker.decorateSupplier(circuitBreakers.circuitBreaker(resource), call));
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw unavailable(resource, e);
+        }
+    }
+
+    public <T> Mono<T> execute(String path, Mono<T> call) {
+        String resource = resource(path);
+        return call
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.circuitBreaker(resource)))
+                .transformDeferred(BulkheadOperator.of(bulkhead(resource)))
+                .onErrorMap(e -> e instanceof CallNotPermittedException || e instanceof BulkheadFullException,
+                        e -> unavailable(resource, e));
+    }
+
+    public <T> T executeLimited(String path, Supplier<T> call) {
+        String endpoint = endpoint(path);
+        try {
+            return Bulkhead.decorateSupplier(bulkhead(endpoint), call).get();
+        } catch (BulkheadFullException e) {
+            throw unavailable(endpoint, e);
+        }
+    }
+
+    public <T> Mono<T> executeLimited(String path, Mono<T> call) {
+        String endpoint = endpoint(path);
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead(endpoint)))
+                .onErrorMap(BulkheadFullException.class, e -> unavailable(endpoint, e));
+    }
+
+    private Bulkhead bulkhead(String resource) {
+        return bulkheads.bulkhead(resource, () -> BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkheads().getOrDefault(resource, properties.getDefaultBulkhead()))
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    private ServerUnavailableException unavailable(String resource, Throwable cause) {
+        if (cause instanceof CallNotPermittedException) {
+            return new ServerUnavailableException("Сервер не справляется с запросами к /" + resource
+                    + ", запросы временно не отправляются", properties.getCircuitBreaker().getWaitInOpenState());
+        }
+        return new ServerUnavailableException("Слишком много одновременных запросов к /" + resource,
+                Duration.ofSeconds(1));
+    }
+
+    // Ответ 5xx сервер вернул, но это такая же неудача, как ошибка соединения
+    private static boolean isServerError(Object result) {
+        return result instanceof ResponseEntity<?> response && response.getStatusCode().is5xxServerError();
+    }
+
+    private static String endpoint(String path) {
+        int query = path.indexOf('?');
+        return (query >= 0 ? path.substring(1, query) : path.substring(1)).replace('/', '-');
+    }
+
+    private static String resource(String path) {
+        int end = path.length();
+        for (int i = 1; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '/' || c == '?') {
+                end = i;
+                break;
+            }
+        }
+        return path.substring(1, end);
+    }
+}
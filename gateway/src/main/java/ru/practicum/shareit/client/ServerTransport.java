@@ -0,0 +1,22 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * Передача запроса шлюза серверу. Тип R — ответ, который контроллер шлюза возвращает клиенту:
+ * блокирующая реализация отдаёт готовый ответ, реактивная — его публикацию с потоковым телом.
+ */
+public interface ServerTransport<R> {
+    R exchange(HttpMethod method, String path, @Nullable Long userId, @Nullable Map<String, Object> parameters,
+               @Nullable Object body);
+
+    /**
+     * POST с телом текущего запроса клиента: тело передаётся серверу потоком, по мере получения, без чтения
+     * целиком в память шлюза и без разбора.
+     */
+    R forwardBody(String path, long userId, MediaType contentType);
+}
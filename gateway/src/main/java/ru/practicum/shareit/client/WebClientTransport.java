@@ -0,0 +1,142 @@
+package ru.practicum.shareit.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.util.context.ContextView;
+import ru.practicum.shareit.Constant;
+
+/**
+ * Неблокирующая передача через WebClient: пока сервер готовит ответ, поток не занят, а тело ответа
+ * передаётся клиенту по частям по мере получения, без чтения целиком в память шлюза.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebClientTransport implements ServerTransport<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final WebClient webClient;
+    private final RequestCoalescer coalescer;
+    private final ServerCallGuard guard;
+
+    public WebClientTransport(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              ClientHttpConnector shareItServerConnector, RequestCoalescer coalescer,
+                              ServerCallGuard guard) {
+        this.webClient = builder
+                .baseUrl(serverUrl)
+                .clientConnector(shareItServerConnector)
+                .build();
+        this.coalescer = coalescer;
+        this.guard = guard;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                                           @Nullable Map<String, Object> parameters,
+                                                           @Nullable Object body) {
+        return Mono.deferContextual(context -> {
+            String ifNoneMatch = method == HttpMethod.GET ? ifNoneMatch(context) : null;
+            String route = coalescer.route(method, path);
+            if (route == null) {
+                return guard.execute(path, retrieve(method, path, userId, parameters, body, ifNoneMatch)
+                                .toEntityFlux(DataBuffer.class))
+                        .map(WebClientTransport::prepareGatewayResponse);
+            }
+            // Объединённый ответ читается целиком, чтобы одно тело получили все ожидающие его запросы;
+            // отмена одного из них не прерывает запрос к серверу
+            CompletableFuture<ResponseEntity<byte[]>> response = coalescer.coalesce(route, path, parameters, userId,
+                    ifNoneMatch, () -> guard.execute(path, retrieve(method, path, userId, parameters, body, ifNoneMatch)
+                                    .toEntity(byte[].class))
+                            .toFuture());
+            return Mono.fromFuture(response, true)
+                    .map(WebClientTransport::prepareCoalescedResponse);
+        });
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forwardBody(String path, long userId, MediaType contentType) {
+        return Mono.deferContextual(context -> {
+            ServerWebExchange exchange = ServerWebExchangeContextFilter.getExchange(context)
+                    .orElseThrow(() -> new IllegalStateException("Нет запроса клиента в контексте подписки"));
+            long contentLength = exchange.getRequest().getHeaders().getContentLength();
+            return guard.executeLimited(path, webClient.post()
+                            .uri(path)
+                            .headers(headers -> {
+                                defaultHeaders(headers, userId);
+                                headers.setContentType(contentType);
+                                if (contentLength >= 0) {
+                                    headers.setContentLength(contentLength);
+                                }
+                            })
+                            .body(BodyInserters.fromDataBuffers(exchange.getRequest().getBody()))
+                            .retrieve()
+                            .onStatus(HttpStatusCode::isError, response -> Mono.empty())
+                            .toEntityFlux(DataBuffer.class))
+                    .map(WebClientTransport::prepareGatewayResponse);
+        });
+    }
+
+    private WebClient.ResponseSpec retrieve(HttpMethod method, String path, @Nullable Long userId,
+                                            @Nullable Map<String, Object> parameters, @Nullable Object body,
+                                            @Nullable String ifNoneMatch) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    defaultHeaders(headers, userId);
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        // Ошибки сервера передаются клиенту как есть, вместе с телом
+        return spec.retrieve()
+                .onStatus(HttpStatusCode::isError, response -> Mono.empty());
+    }
+
+    private static void defaultHeaders(HttpHeaders headers, Long userId) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set(Constant.OWNER_HEADER, String.valueOf(userId));
+        }
+    }
+
+    // Запрос клиента доступен через контекст подписки, его туда кладёт ServerWebExchangeContextFilter
+    @Nullable
+    private static String ifNoneMatch(ContextView context) {
+        return ServerWebExchangeContextFilter.getExchange(context)
+                .map(exchange -> exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))
+                .orElse(null);
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> prepareGatewayResponse(ResponseEntity<Flux<DataBuffer>> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> ForwardedHeaders.copy(response.getHeaders(), headers))
+                .body(response.getBody());
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> prepareCoalescedResponse(ResponseEntity<byte[]> response) {
+        byte[] body = response.getBody();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> ForwardedHeaders.copy(response.getHeaders(), headers))
+                .body(body != null ? Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)) : Flux.empty());
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.exception;
+
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // Нарушения ограничений на параметрах контроллера (@Validated): заголовки, параметры, элементы списков
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolation(ConstraintViolationException e) {
+        String message = e.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        log.warn("ConstraintViolationException: {}", message);
+        return new ErrorResponse(message, LocalDateTime.now());
+    }
+
+    // Отказы пишутся в debug: при наплыве запросов их число видно по метрикам, а не по логу
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException e) {
+        log.debug("TooManyRequestsException: {}", e.getMessage());
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e.getRetryAfter());
+    }
+
+    @ExceptionHandler(ServerUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServerUnavailable(ServerUnavailableException e) {
+        log.debug("ServerUnavailableException: {}", e.getMessage());
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e.getRetryAfter());
+    }
+
+    private static ResponseEntity<ErrorResponse> retryLater(HttpStatus status, String message, Duration retryAfter) {
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse(message, LocalDateTime.now()));
+    }
+}
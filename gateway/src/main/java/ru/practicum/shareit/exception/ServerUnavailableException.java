@@ -0,0 +1,16 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class ServerUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    // Без стека: отказ без обращения к серверу создаётся на каждый запрос, пока сервер недоступен
+    public ServerUnavailableException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
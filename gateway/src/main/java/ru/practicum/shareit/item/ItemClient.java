@@ -1,52 +1,56 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.ratelimit.UserRateLimiter;
 import ru.practicum.shareit.item.dto.CommentCreateRequestDto;
 import ru.practicum.shareit.item.dto.ItemCreateRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
+import java.util.Map;
+
 @Service
-public class ItemClient extends BaseClient {
+public class ItemClient<R> extends BaseClient<R> {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public ItemClient(ServerTransport<R> transport, UserRateLimiter rateLimiter) {
+        super(transport, rateLimiter, API_PREFIX);
     }
 
-    public ResponseEntity<Object> create(long userId, ItemCreateRequestDto requestDto) {
+    public R create(long userId, ItemCreateRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> update(long itemId, ItemRequestDto requestDto) {
+    public R importItems(long userId, MediaType contentType) {
+        return forwardBody("/import", userId, contentType);
+    }
+
+    public R update(long itemId, ItemRequestDto requestDto) {
         return patch("/" + itemId, requestDto);
     }
 
-    public ResponseEntity<Object> getList(long userId) {
+    public R getList(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> retrieve(long itemId, long userId) {
+    public R retrieve(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> search(String text) {
-        return get("/search?text=" + text);
+    public R search(String text, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> createComment(long userId, long itemId, CommentCreateRequestDto commentCreateDto) {
+    public R createComment(long userId, long itemId, CommentCreateRequestDto commentCreateDto) {
         return post("/" + itemId + "/comment", userId, commentCreateDto);
     }
 }
@@ -1,39 +1,58 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.ItemCreateRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.CommentCreateRequestDto;
 
+import static ru.practicum.shareit.Constant.MAX_SEARCH_PAGE_SIZE;
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
 @Slf4j
-@RestController
 @RequestMapping(path = "/items")
 @RequiredArgsConstructor
 @Validated
-public class ItemController {
-    private final ItemClient client;
+public abstract class ItemController<R> {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ItemClient<R> client;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> create(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
+    public R create(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
                           @Valid @RequestBody ItemCreateRequestDto itemData) {
         log.info("POST /items -> {} | userid={}", itemData, userId);
         return client.create(userId, itemData);
     }
 
+    // Тело не разбирается в шлюзе: строки проверяет сервер и возвращает ошибки по номерам строк
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public R importItems(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
+                         @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        log.info("POST /items/import -> {} | userid={}", contentType, userId);
+        return client.importItems(userId, contentType);
+    }
+
     @PatchMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> update(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
+    public R update(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
                           @PathVariable @Positive long itemId,
                           @Valid @RequestBody ItemRequestDto newItemData) {
         log.info("PATCH /items/{} -> {} | userid={}", itemId, newItemData, userId);
@@ -42,14 +61,14 @@ public class ItemController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getList(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId) {
+    public R getList(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId) {
         log.info("GET /items | userid={}", userId);
         return client.getList(userId);
     }
 
     @GetMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> retrieve(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
+    public R retrieve(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
                             @PathVariable @Positive long itemId) {
         log.info("GET /items/{} | userid={}", itemId, userId);
         return client.retrieve(itemId, userId);
@@ -57,17 +76,36 @@ public class ItemController {
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> search(@RequestParam String text) {
-        log.info("GET /items/search?text={}", text);
-        return client.search(text);
+    public R search(@RequestParam String text,
+                                         @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                         @Positive @Max(MAX_SEARCH_PAGE_SIZE)
+                                         @RequestParam(defaultValue = "10") Integer size) {
+        log.info("GET /items/search?text={}&from={}&size={}", text, from, size);
+        return client.search(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> createComment(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
+    public R createComment(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
                                     @PathVariable @Positive long itemId,
                                     @Valid @RequestBody CommentCreateRequestDto commentCreateDto) {
         log.info("POST /items/{}/comment -> {} | userid={}", itemId, commentCreateDto, userId);
         return client.createComment(userId, itemId, commentCreateDto);
     }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Blocking extends ItemController<ResponseEntity<byte[]>> {
+        Blocking(ItemClient<ResponseEntity<byte[]>> client) {
+            super(client);
+        }
+    }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive extends ItemController<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+        Reactive(ItemClient<Mono<ResponseEntity<Flux<DataBuffer>>>> client) {
+            super(client);
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * Бюджет запросов GET одного пользователя.
+     */
+    private Budget reads = new Budget(100, 200);
+
+    /**
+     * Бюджет остальных запросов одного пользователя.
+     */
+    private Budget writes = new Budget(20, 40);
+
+    /**
+     * Сколько пользователей отслеживается одновременно; сверх этого вёдра удаляются.
+     */
+    private int maxUsers = 100_000;
+
+    /**
+     * Как часто удаляются вёдра пользователей, которые успели их наполнить.
+     */
+    private Duration idleSweepInterval = Duration.ofMinutes(1);
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        /**
+         * Сколько запросов в секунду пользователь может отправлять постоянно.
+         */
+        private int permitsPerSecond;
+
+        /**
+         * Сколько запросов подряд допускается после простоя.
+         */
+        private int burst;
+    }
+}
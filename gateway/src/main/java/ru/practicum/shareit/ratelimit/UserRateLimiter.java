@@ -0,0 +1,157 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты запросов пользователя (X-Sharer-User-Id) к серверу: у каждого пользователя отдельное
+ * ведро токенов для GET и для остальных запросов. Запросы без пользователя не ограничиваются.
+ *
+ * <p>Ведро хранится одним числом — моментом, когда оно снова будет полным. Запрос сдвигает этот момент
+ * на интервал между токенами, если тот не уходит дальше ёмкости ведра от текущего времени; сдвиг делается
+ * одним compareAndSet, без блокировок.
+ *
+ * <p>Полное ведро не отличается от отсутствующего, поэтому раз в idle-sweep-interval и при превышении
+ * max-users вёдра наполнившихся пользователей удаляются. Если активных пользователей всё равно больше
+ * лимита, удаляются и их вёдра: такой пользователь начинает с полного.
+ *
+ * <p>Счётчик отказов shareit.gateway.rate-limit.rejected с тегом budget (reads, writes),
+ * число отслеживаемых пользователей — shareit.gateway.rate-limit.users.
+ */
+@Component
+public class UserRateLimiter {
+    private final boolean enabled;
+    private final long readIntervalNanos;
+    private final long readCapacityNanos;
+    private final long writeIntervalNanos;
+    private final long writeCapacityNanos;
+    private final int maxUsers;
+    private final long sweepIntervalNanos;
+    private final Map<Long, Buckets> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoTime;
+    private final AtomicLong lastSweep;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    @Autowired
+    public UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    // Часы подменяются в тестах
+    UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.lastSweep = new AtomicLong(nanoTime.getAsLong());
+        this.enabled = properties.isEnabled();
+        this.readIntervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getReads().getPermitsPerSecond();
+        this.readCapacityNanos = readIntervalNanos * properties.getReads().getBurst();
+        this.writeIntervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getWrites().getPermitsPerSecond();
+        this.writeCapacityNanos = writeIntervalNanos * properties.getWrites().getBurst();
+        this.maxUsers = properties.getMaxUsers();
+        this.sweepIntervalNanos = properties.getIdleSweepInterval().toNanos();
+        this.readsRejected = meterRegistry.counter("shareit.gateway.rate-limit.rejected", "budget", "reads");
+        this.writesRejected = meterRegistry.counter("shareit.gateway.rate-limit.rejected", "budget", "writes");
+        Gauge.builder("shareit.gateway.rate-limit.users", buckets, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Берёт токен из ведра пользователя или бросает {@link TooManyRequestsException} со временем,
+     * через которое токен появится.
+     */
+    public void acquire(long userId, HttpMethod method) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        Buckets userBuckets = buckets.get(userId);
+        if (userBuckets == null) {
+            userBuckets = register(userId, now);
+        }
+        if (method == HttpMethod.GET) {
+            long waitNanos = take(userBuckets.readsFullAt, now, readIntervalNanos, readCapacityNanos);
+            if (waitNanos > 0) {
+                readsRejected.increment();
+                throw new TooManyRequestsException("Превышен лимит запросов на чтение пользователя " + userId,
+                        Duration.ofNanos(waitNanos));
+            }
+        } else {
+            long waitNanos = take(userBuckets.writesFullAt, now, writeIntervalNanos, writeCapacityNanos);
+            if (waitNanos > 0) {
+                writesRejected.increment();
+                throw new TooManyRequestsException("Превышен лимит запросов на изменение пользователя " + userId,
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+
+    // Возвращает 0, если токен взят, иначе сколько ждать следующего
+    private static long take(AtomicLong fullAt, long now, long intervalNanos, long capacityNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long waitNanos = next - capacityNanos - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private Buckets register(long userId, long now) {
+        Buckets created = new Buckets(now);
+        Buckets existing = buckets.putIfAbsent(userId, created);
+        if (existing != null) {
+            return existing;
+        }
+        if (buckets.size() > maxUsers || now - lastSweep.get() > sweepIntervalNanos) {
+            sweep(now);
+        }
+        return created;
+    }
+
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (!lastSweep.compareAndSet(last, now)) {
+            // Очистку уже выполняет другой поток
+            return;
+        }
+        buckets.values().removeIf(userBuckets -> userBuckets.isFull(now));
+        // Удаление с запасом, чтобы следующий новый пользователь не запускал очистку снова
+        int target = maxUsers - maxUsers / 10;
+        Iterator<Long> userIds = buckets.keySet().iterator();
+        while (buckets.size() > target && userIds.hasNext()) {
+            userIds.next();
+            userIds.remove();
+        }
+    }
+
+    private static class Buckets {
+        final AtomicLong readsFullAt;
+        final AtomicLong writesFullAt;
+
+        Buckets(long now) {
+            this.readsFullAt = new AtomicLong(now);
+            this.writesFullAt = new AtomicLong(now);
+        }
+
+        boolean isFull(long now) {
+            return readsFullAt.get() <= now && writesFullAt.get() <= now;
+        }
+    }
+}
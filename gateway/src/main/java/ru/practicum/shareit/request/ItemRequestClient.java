@@ -1,43 +1,41 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.ratelimit.UserRateLimiter;
 import ru.practicum.shareit.request.dto.ItemRequestCreateRequestDto;
 
+import java.util.Map;
+
 @Service
-public class ItemRequestClient extends BaseClient {
+public class ItemRequestClient<R> extends BaseClient<R> {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
-        );
+    public ItemRequestClient(ServerTransport<R> transport, UserRateLimiter rateLimiter) {
+        super(transport, rateLimiter, API_PREFIX);
     }
 
-    public ResponseEntity<Object> create(long userId, ItemRequestCreateRequestDto requestDto) {
+    public R create(long userId, ItemRequestCreateRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getMyList(long userId) {
+    public R getMyList(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getCommonList() {
-        return get("/all");
+    public R getCommonList(Long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> retrieve(long requestId) {
+    public R retrieve(long requestId) {
         return get("/" + requestId);
     }
 }
@@ -3,27 +3,31 @@ package ru.practicum.shareit.request;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestCreateRequestDto;
 
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
 @Slf4j
 @Validated
-@RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
-public class ItemRequestController {
-    private final ItemRequestClient client;
+public abstract class ItemRequestController<R> {
+    private final ItemRequestClient<R> client;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> create(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
+    public R create(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId,
                                          @Valid @RequestBody ItemRequestCreateRequestDto itemRequestData) {
         log.info("POST /requests -> {} | {}", itemRequestData, userId);
         return client.create(userId, itemRequestData);
@@ -31,22 +35,40 @@ public class ItemRequestController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getMyList(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId) {
+    public R getMyList(@RequestHeader(OWNER_HEADER) @NotNull @Positive Long userId) {
         log.info("GET /requests | userid={}", userId);
         return client.getMyList(userId);
     }
 
     @GetMapping("/{requestId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> retrieve(@PathVariable @Positive long requestId) {
+    public R retrieve(@PathVariable @Positive long requestId) {
         log.info("GET /requests/{}", requestId);
         return client.retrieve(requestId);
     }
 
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getCommonList() {
-        log.info("GET /requests/all");
-        return client.getCommonList();
+    public R getCommonList(@RequestHeader(value = OWNER_HEADER, required = false) @Positive Long userId,
+                                                @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.info("GET /requests/all?from={}&size={} | userid={}", from, size, userId);
+        return client.getCommonList(userId, from, size);
+    }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Blocking extends ItemRequestController<ResponseEntity<byte[]>> {
+        Blocking(ItemRequestClient<ResponseEntity<byte[]>> client) {
+            super(client);
+        }
+    }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive extends ItemRequestController<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+        Reactive(ItemRequestClient<Mono<ResponseEntity<Flux<DataBuffer>>>> client) {
+            super(client);
+        }
     }
 }
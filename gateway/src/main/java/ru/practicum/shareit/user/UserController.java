@@ -3,31 +3,34 @@ package ru.practicum.shareit.user;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserCreateRequestDto;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 @Slf4j
-@RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
 @Validated
-public class UserController {
-    private final UserClient client;
+public abstract class UserController<R> {
+    private final UserClient<R> client;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> create(@Valid @RequestBody UserCreateRequestDto userData) {
+    public R create(@Valid @RequestBody UserCreateRequestDto userData) {
         log.info("POST /users -> {}", userData);
         return client.create(userData);
     }
 
     @PatchMapping("/{userId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> update(@PathVariable long userId,
+    public R update(@PathVariable long userId,
                           @Valid @RequestBody UserRequestDto newItemData) {
         log.info("PATCH /users/{} -> {}", userId, newItemData);
         return client.update(userId, newItemData);
@@ -35,22 +38,38 @@ public class UserController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getList() {
+    public R getList() {
         log.info("GET /users");
         return client.getList();
     }
 
     @GetMapping("/{userId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> retrieve(@PathVariable long userId) {
+    public R retrieve(@PathVariable long userId) {
         log.info("GET /users/{}", userId);
         return client.retrieve(userId);
     }
 
     @DeleteMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public ResponseEntity<Object> delete(@PathVariable long userId) {
+    public R delete(@PathVariable long userId) {
         log.info("DELETE /users/{}", userId);
         return client.delete(userId);
     }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Blocking extends UserController<ResponseEntity<byte[]>> {
+        Blocking(UserClient<ResponseEntity<byte[]>> client) {
+            super(client);
+        }
+    }
+
+    @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive extends UserController<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+        Reactive(UserClient<Mono<ResponseEntity<Flux<DataBuffer>>>> client) {
+            super(client);
+        }
+    }
 }
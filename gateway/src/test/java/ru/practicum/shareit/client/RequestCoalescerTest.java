@@ -0,0 +1,105 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+    private static final String ROUTE = "/items/search";
+    private static final Map<String, Object> PARAMETERS = Map.of("text", "дрель");
+
+    private MeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(new CoalescingProperties(), meterRegistry);
+    }
+
+    @Test
+    void routeMatchesOnlyConfiguredGetRequests() {
+        assertEquals(ROUTE, coalescer.route(HttpMethod.GET, "/items/search?text={text}"));
+        assertNull(coalescer.route(HttpMethod.POST, "/items/search"));
+        assertNull(coalescer.route(HttpMethod.GET, "/items/1"));
+    }
+
+    @Test
+    void identicalRequestsShareOneCallUntilItCompletes() {
+        CompletableFuture<String> server = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<CompletableFuture<String>> call = () -> {
+            calls.incrementAndGet();
+            return server;
+        };
+
+        CompletableFuture<String> first = coalesce(1L, call);
+        CompletableFuture<String> second = coalesce(1L, call);
+        CompletableFuture<String> otherUser = coalesce(2L, () -> CompletableFuture.completedFuture("чужой"));
+
+        assertSame(first, second);
+        assertFalse(first.isDone());
+        assertEquals("чужой", otherUser.join());
+
+        server.complete("ответ");
+        assertEquals("ответ", second.join());
+        assertEquals(1, calls.get());
+
+        // После ответа такой же запрос снова идёт на сервер
+        coalesce(1L, call);
+        assertEquals(2, calls.get());
+        assertEquals(3, count("forwarded"));
+        assertEquals(1, count("collapsed"));
+    }
+
+    @Test
+    void failedCallFailsWaitersAndReleasesKey() {
+        CompletableFuture<String> server = new CompletableFuture<>();
+        CompletableFuture<String> first = coalesce(1L, () -> server);
+        CompletableFuture<String> second = coalesce(1L, () -> CompletableFuture.completedFuture("лишний"));
+
+        server.completeExceptionally(new IllegalStateException("сервер недоступен"));
+
+        CompletionException error = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertSame(first, second);
+        assertEquals("снова", coalesce(1L, () -> CompletableFuture.completedFuture("снова")).join());
+    }
+
+    @Test
+    void errorThrownByCallCompletesResultAndReleasesKey() {
+        CompletableFuture<String> failed = coalesce(1L, () -> {
+            throw new StackOverflowError();
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(StackOverflowError.class, error.getCause());
+        assertEquals("снова", coalesce(1L, () -> CompletableFuture.completedFuture("снова")).join());
+    }
+
+    private CompletableFuture<String> coalesce(Long userId, Supplier<CompletableFuture<String>> call) {
+        return coalescer.coalesce(ROUTE, "/items/search?text={text}", PARAMETERS, userId, null, call);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("shareit.gateway.coalescing.requests")
+                .tags("route", ROUTE, "result", result)
+                .counter()
+                .count();
+    }
+}
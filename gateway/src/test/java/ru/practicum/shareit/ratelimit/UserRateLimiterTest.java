@@ -0,0 +1,152 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserRateLimiterTest {
+    private static final long USER_ID = 1;
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private MeterRegistry meterRegistry;
+    private long now;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Начало отсчёта не с нуля: nanoTime может быть любым, в том числе отрицательным
+        now = -TimeUnit.DAYS.toNanos(1);
+        properties.setReads(new RateLimitProperties.Budget(10, 3));
+        properties.setWrites(new RateLimitProperties.Budget(2, 2));
+        properties.setMaxUsers(10);
+        properties.setIdleSweepInterval(Duration.ofHours(1));
+    }
+
+    @Test
+    void burstIsAllowedThenRequestsAreRejected() {
+        UserRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(USER_ID, HttpMethod.GET);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(USER_ID, HttpMethod.GET));
+        assertEquals(1, rejected("reads"));
+    }
+
+    @Test
+    void retryAfterIsTimeUntilNextToken() {
+        UserRateLimiter limiter = limiter();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(USER_ID, HttpMethod.GET);
+        }
+
+        assertEquals(Duration.ofMillis(100), retryAfter(limiter, HttpMethod.GET));
+
+        advance(Duration.ofMillis(40));
+        assertEquals(Duration.ofMillis(60), retryAfter(limiter, HttpMethod.GET));
+
+        advance(Duration.ofMillis(60));
+        assertDoesNotThrow(() -> limiter.acquire(USER_ID, HttpMethod.GET));
+        assertEquals(Duration.ofMillis(100), retryAfter(limiter, HttpMethod.GET));
+    }
+
+    @Test
+    void readsAndWritesHaveSeparateBudgets() {
+        UserRateLimiter limiter = limiter();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(USER_ID, HttpMethod.GET);
+        }
+        assertEquals(Duration.ofMillis(100), retryAfter(limiter, HttpMethod.GET));
+
+        limiter.acquire(USER_ID, HttpMethod.POST);
+        limiter.acquire(USER_ID, HttpMethod.PATCH);
+        assertEquals(Duration.ofMillis(500), retryAfter(limiter, HttpMethod.DELETE));
+
+        advance(Duration.ofMillis(100));
+        assertDoesNotThrow(() -> limiter.acquire(USER_ID, HttpMethod.GET));
+        assertEquals(Duration.ofMillis(400), retryAfter(limiter, HttpMethod.POST));
+        assertDoesNotThrow(() -> limiter.acquire(USER_ID + 1, HttpMethod.POST));
+        assertEquals(1, rejected("reads"));
+        assertEquals(2, rejected("writes"));
+    }
+
+    @Test
+    void bucketsAreEvictedAboveMaxUsers() {
+        UserRateLimiter limiter = limiter();
+        // Десять пользователей с пустыми вёдрами записи; одиннадцатый запускает очистку
+        LongStream.rangeClosed(1, 10).forEach(userId -> {
+            limiter.acquire(userId, HttpMethod.POST);
+            limiter.acquire(userId, HttpMethod.POST);
+        });
+        limiter.acquire(11, HttpMethod.GET);
+
+        // Полное ведро нового пользователя удалено, из активных удалён один — до 90% лимита
+        assertEquals(9, users());
+        long restored = LongStream.rangeClosed(1, 10)
+                .filter(userId -> {
+                    try {
+                        limiter.acquire(userId, HttpMethod.POST);
+                        return true;
+                    } catch (TooManyRequestsException e) {
+                        return false;
+                    }
+                })
+                .count();
+        assertEquals(1, restored);
+    }
+
+    @Test
+    void refilledBucketsAreSweptAfterIdleInterval() {
+        UserRateLimiter limiter = limiter();
+        LongStream.rangeClosed(1, 5).forEach(userId -> limiter.acquire(userId, HttpMethod.POST));
+        assertEquals(5, users());
+
+        advance(Duration.ofHours(1).plusSeconds(1));
+        limiter.acquire(6, HttpMethod.GET);
+
+        assertEquals(0, users());
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        properties.setEnabled(false);
+        UserRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(USER_ID, HttpMethod.POST);
+        }
+        assertEquals(0, users());
+    }
+
+    private UserRateLimiter limiter() {
+        return new UserRateLimiter(properties, meterRegistry, () -> now);
+    }
+
+    private void advance(Duration duration) {
+        now += duration.toNanos();
+    }
+
+    private static Duration retryAfter(UserRateLimiter limiter, HttpMethod method) {
+        return assertThrows(TooManyRequestsException.class, () -> limiter.acquire(USER_ID, method)).getRetryAfter();
+    }
+
+    private double rejected(String budget) {
+        return meterRegistry.get("shareit.gateway.rate-limit.rejected").tag("budget", budget).counter().count();
+    }
+
+    private double users() {
+        return meterRegistry.get("shareit.gateway.rate-limit.users").gauge().value();
+    }
+}
@@ -1,15 +1,24 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dao.State;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.ResourceVersions;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
+import static ru.practicum.shareit.Constant.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
 @Slf4j
@@ -17,8 +26,11 @@ import static ru.practicum.shareit.Constant.OWNER_HEADER;
 @RequestMapping("/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    // Состав остальных выборок меняется с течением времени, а не только при изменении данных
+    private static final Set<State> VERSIONED_STATES = EnumSet.of(State.ALL, State.WAITING, State.REJECTED);
 
     private final BookingService bookingService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,6 +40,13 @@ public class BookingController {
         return bookingService.create(userId, bookingCreateDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createAll(@RequestHeader(OWNER_HEADER) Long userId,
+                                                 @RequestBody List<BookingCreateDto> bookingCreateDtos) {
+        log.info("Получен запрос на создание {} бронирований от пользователя с id={}", bookingCreateDtos.size(), userId);
+        return bookingService.createAll(userId, bookingCreateDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
     public BookingDto approve(@RequestHeader(OWNER_HEADER) Long userId,
@@ -46,24 +65,56 @@ public class BookingController {
     }
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     public List<BookingDto> getAllByUser(@RequestHeader(OWNER_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Получен запрос на получение всех бронирований пользователя с id={}, state={}, from={}, size={}",
-                userId, state, from, size);
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response,
+            WebRequest webRequest) {
+        log.info("Получен запрос на получение всех бронирований пользователя с id={}, state={}, from={}, size={}, "
+                + "cursor={}", userId, state, from, size, cursor);
+        if (isNotModified(userId, state, webRequest)) {
+            return null;
+        }
+        if (cursor != null) {
+            return withNextCursor(bookingService.getAllByUserAfter(userId, state, cursor, size), response);
+        }
         return bookingService.getAllByUser(userId, state, from, size);
     }
 
     @GetMapping("/owner")
-    @ResponseStatus(HttpStatus.OK)
     public List<BookingDto> getAllByOwner(@RequestHeader(OWNER_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Получен запрос на получение всех бронирований владельца с id={}, state={}, from={}, size={}", userId,
-                state, from, size);
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response,
+            WebRequest webRequest) {
+        log.info("Получен запрос на получение всех бронирований владельца с id={}, state={}, from={}, size={}, "
+                + "cursor={}", userId, state, from, size, cursor);
+        if (isNotModified(userId, state, webRequest)) {
+            return null;
+        }
+        if (cursor != null) {
+            return withNextCursor(bookingService.getAllByOwnerAfter(userId, state, cursor, size), response);
+        }
         return bookingService.getAllByOwner(userId, state, from, size);
     }
+
+    private boolean isNotModified(Long userId, String state, WebRequest webRequest) {
+        boolean versioned = State.from(state)
+                .map(VERSIONED_STATES::contains)
+                .orElse(false);
+        return versioned && webRequest.checkNotModified(
+                resourceVersions.etag(ResourceVersions.bookings(userId), userId));
+    }
+
+    // Курсор следующей страницы передаётся заголовком, чтобы тело ответа осталось прежним списком
+    private static List<BookingDto> withNextCursor(BookingPageDto page, HttpServletResponse response) {
+        if (page.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getBookings();
+    }
 }
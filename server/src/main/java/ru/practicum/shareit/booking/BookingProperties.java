@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking")
+public class BookingProperties {
+    /**
+     * Число блокировок, между которыми распределяются вещи при проверке пересечения бронирований.
+     */
+    private int lockStripes = 64;
+
+    /**
+     * Сколько вещей держать в индексе занятости; при переполнении вытесняются давно не запрашиваемые.
+     */
+    private int availabilityCacheItems = 10_000;
+
+    /**
+     * Сколько бронирований можно создать одним запросом POST /bookings/batch.
+     */
+    private int maxBatchSize = 500;
+
+    /**
+     * Наибольший size страницы бронирований в режиме cursor.
+     */
+    private int maxPageSize = 1000;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Период подтверждённого бронирования вещи.
+ */
+public interface BookingInterval {
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -1,44 +1,48 @@
 package ru.practicum.shareit.booking.dao;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-        List<Booking> findByBookerId(Long bookerId, Sort sort);
-
-        List<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Sort sort);
-
-        List<Booking> findByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Sort sort);
-
-        List<Booking> findByBookerIdAndStartIsBeforeAndEndIsAfter(Long bookerId, LocalDateTime start, LocalDateTime end,
-                        Sort sort);
-
-        List<Booking> findByBookerIdAndStatusIs(Long bookerId, Status status, Sort sort);
-
-        List<Booking> findByItemIdIn(List<Long> itemIds, Sort sort);
-
-        List<Booking> findByItemIdInAndEndIsBefore(List<Long> itemIds, LocalDateTime end, Sort sort);
-
-        List<Booking> findByItemIdInAndStartIsAfter(List<Long> itemIds, LocalDateTime start, Sort sort);
-
-        List<Booking> findByItemIdInAndStartIsBeforeAndEndIsAfter(List<Long> itemIds, LocalDateTime start,
-                        LocalDateTime end, Sort sort);
-
-        List<Booking> findByItemIdInAndStatusIs(List<Long> itemIds, Status status, Sort sort);
-
-        @Query("select b from Booking b where b.item.id = :itemId and b.start < :time and b.status = 'APPROVED' order by b.end desc")
-        List<Booking> findLastBookingByItemId(@Param("itemId") Long itemId, @Param("time") LocalDateTime time);
-
-        @Query("select b from Booking b where b.item.id = :itemId and b.start > :time and b.status = 'APPROVED' order by b.start")
-        List<Booking> findNextBookingByItemId(@Param("itemId") Long itemId, @Param("time") LocalDateTime time);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingStateRepository {
+        @Query("""
+                        select b.item.id as itemId, b.start as start from Booking b
+                        where b.item.id in :itemIds and b.status = 'APPROVED' and b.start < :time
+                              and b.end = (select max(l.end) from Booking l
+                                           where l.item.id = b.item.id and l.status = 'APPROVED' and l.start < :time)
+                        """)
+        List<ItemBookingStart> findLastBookingStarts(@Param("itemIds") Collection<Long> itemIds,
+                        @Param("time") LocalDateTime time);
+
+        @Query("""
+                        select b.item.id as itemId, min(b.start) as start from Booking b
+                        where b.item.id in :itemIds and b.status = 'APPROVED' and b.start > :time
+                        group by b.item.id
+                        """)
+        List<ItemBookingStart> findNextBookingStarts(@Param("itemIds") Collection<Long> itemIds,
+                        @Param("time") LocalDateTime time);
+
+        @Query("""
+                        select b.start as start, b.end as end from Booking b
+                        where b.item.id = :itemId and b.status = 'APPROVED'
+                        order by b.start
+                        """)
+        List<BookingInterval> findApprovedIntervals(@Param("itemId") Long itemId);
+
+        @Query("""
+                        select b.item.id as itemId, b.start as start, b.end as end from Booking b
+                        where b.item.id in :itemIds and b.status = 'APPROVED'
+                        order by b.item.id, b.start
+                        """)
+        List<ItemBookingInterval> findApprovedIntervals(@Param("itemIds") Collection<Long> itemIds);
 
         @Query("select b.id from Booking b where b.booker.id = :bookerId and b.item.id = :itemId and b.end < :end and b.status = :status")
         List<Long> findByBookerIdAndItemIdAndEndIsBeforeAndStatusIs(@Param("bookerId") Long bookerId,
@@ -53,4 +57,18 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         @Query("select b.id from Booking b where b.booker.id = :bookerId and b.item.id = :itemId and b.status = :status")
         List<Long> findByBookerIdAndItemIdAndStatusIs(@Param("bookerId") Long bookerId,
                         @Param("itemId") Long itemId, @Param("status") Status status);
-}
\ No newline at end of file
+
+        @Query("select distinct b.booker.id from Booking b where b.item.id = :itemId")
+        List<Long> findBookerIdsByItemId(@Param("itemId") Long itemId);
+
+        @Query("select distinct b.item.owner.id from Booking b where b.booker.id = :bookerId")
+        List<Long> findItemOwnerIdsByBookerId(@Param("bookerId") Long bookerId);
+
+        @Query("select b.status from Booking b where b.id = :id")
+        Status findStatusById(@Param("id") Long id);
+
+        // Меняет статус, только если он всё ещё равен expected; возвращает число изменённых строк
+        @Modifying
+        @Query("update Booking b set b.status = :status where b.id = :id and b.status = :expected")
+        int updateStatus(@Param("id") Long id, @Param("expected") Status expected, @Param("status") Status status);
+}
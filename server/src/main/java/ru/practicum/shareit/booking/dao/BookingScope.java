@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dao;
+
+/**
+ * Чьи бронирования выбираются: сделанные пользователем или бронирования его вещей.
+ */
+public enum BookingScope {
+    BOOKER,
+    OWNER
+}
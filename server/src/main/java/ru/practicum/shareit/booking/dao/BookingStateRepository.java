@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Выборка бронирований по состоянию для автора или владельца вещи.
+ * Результат всегда упорядочен по (start DESC, id DESC), время {@code now} передаётся один раз на запрос.
+ */
+public interface BookingStateRepository {
+    List<Booking> findByState(BookingScope scope, Long userId, State state, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Keyset-вариант: бронирования строго после (afterStart, afterId) в порядке выдачи,
+     * {@code afterStart == null} означает первую страницу.
+     */
+    List<Booking> findByStateAfter(BookingScope scope, Long userId, State state, LocalDateTime now,
+                                   LocalDateTime afterStart, Long afterId, Limit limit);
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тексты запросов собираются один раз для каждой пары (scope, state), поэтому
+ * Hibernate берёт разобранный план из своего кэша при каждом следующем вызове.
+ */
+@RequiredArgsConstructor
+public class BookingStateRepositoryImpl implements BookingStateRepository {
+    private static final String SELECT = """
+            select b from Booking b
+            join fetch b.item i
+            join fetch i.owner
+            join fetch b.booker
+            where\s""";
+    private static final String AFTER_CURSOR = " and (b.start, b.id) < (:afterStart, :afterId)";
+    private static final String ORDER = " order by b.start desc, b.id desc";
+
+    private static final Map<BookingScope, String> SCOPE_PREDICATES = new EnumMap<>(Map.of(
+            BookingScope.BOOKER, "b.booker.id = :userId",
+            BookingScope.OWNER, "i.owner.id = :userId"
+    ));
+
+    private static final Map<State, StatePredicate> STATE_PREDICATES = new EnumMap<>(Map.of(
+            State.ALL, new StatePredicate("", false),
+            State.CURRENT, new StatePredicate(" and b.start < :now and b.end > :now", true),
+            State.PAST, new StatePredicate(" and b.end < :now", true),
+            State.FUTURE, new StatePredicate(" and b.start > :now", true),
+            State.WAITING, new StatePredicate(" and b.status = 'WAITING'", false),
+            State.REJECTED, new StatePredicate(" and b.status = 'REJECTED'", false)
+    ));
+
+    private static final Map<BookingScope, Map<State, String>> OFFSET_QUERIES = compile("");
+    private static final Map<BookingScope, Map<State, String>> KEYSET_QUERIES = compile(AFTER_CURSOR);
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Booking> findByState(BookingScope scope, Long userId, State state, LocalDateTime now,
+                                     Pageable pageable) {
+        return createQuery(OFFSET_QUERIES, scope, userId, state, now)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<Booking> findByStateAfter(BookingScope scope, Long userId, State state, LocalDateTime now,
+                                          LocalDateTime afterStart, Long afterId, Limit limit) {
+        TypedQuery<Booking> query;
+        if (afterStart == null) {
+            query = createQuery(OFFSET_QUERIES, scope, userId, state, now);
+        } else {
+            query = createQuery(KEYSET_QUERIES, scope, userId, state, now)
+                    .setParameter("afterStart", afterStart)
+                    .setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit.max()).getResultList();
+    }
+
+    private TypedQuery<Booking> createQuery(Map<BookingScope, Map<State, String>> queries, BookingScope scope,
+                                            Long userId, State state, LocalDateTime now) {
+        TypedQuery<Booking> query = entityManager.createQuery(queries.get(scope).get(state), Booking.class)
+                .setParameter("userId", userId);
+        if (STATE_PREDICATES.get(state).usesNow()) {
+            query.setParameter("now", now);
+        }
+        return query;
+    }
+
+    private static Map<BookingScope, Map<State, String>> compile(String cursorPredicate) {
+        Map<BookingScope, Map<State, String>> queries = new EnumMap<>(BookingScope.class);
+        for (BookingScope scope : BookingScope.values()) {
+            Map<State, String> byState = new EnumMap<>(State.class);
+            for (State state : State.values()) {
+                byState.put(state, SELECT + SCOPE_PREDICATES.get(scope) + STATE_PREDICATES.get(state).jpql()
+                        + cursorPredicate + ORDER);
+            }
+            queries.put(scope, byState);
+        }
+        return queries;
+    }
+
+    // usesNow — есть ли в условии параметр :now, который нужно связать
+    private record StatePredicate(String jpql, boolean usesNow) {
+    }
+}
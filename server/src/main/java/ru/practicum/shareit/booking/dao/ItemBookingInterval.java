@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.dao;
+
+/**
+ * Период подтверждённого бронирования вместе с id вещи — для загрузки периодов нескольких вещей одним запросом.
+ */
+public interface ItemBookingInterval extends BookingInterval {
+    Long getItemId();
+}
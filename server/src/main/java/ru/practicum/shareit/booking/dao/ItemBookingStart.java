@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Дата начала последнего или следующего подтверждённого бронирования вещи.
+ */
+public interface ItemBookingStart {
+    Long getItemId();
+
+    LocalDateTime getStart();
+}
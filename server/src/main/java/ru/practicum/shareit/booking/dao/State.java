@@ -1,10 +1,21 @@
 package ru.practicum.shareit.booking.dao;
 
+import java.util.Optional;
+
 public enum State {
     ALL,
     CURRENT,
     PAST,
     FUTURE,
     WAITING,
-    REJECTED
-}
\ No newline at end of file
+    REJECTED;
+
+    public static Optional<State> from(String stringState) {
+        for (State state : values()) {
+            if (state.name().equals(stringState)) {
+                return Optional.of(state);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+
+/**
+ * Результат одного бронирования из пакета, в том же порядке, что и в запросе. status — код, который вернул бы
+ * POST /bookings для этого бронирования: 201 с booking или код ошибки с error.
+ */
+@Data
+public class BookingBatchResultDto {
+    private int status;
+    private BookingDto booking;
+    private String error;
+}
@@ -1,13 +1,17 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 
 import java.util.List;
 
 public interface BookingService {
     BookingDto create(Long userId, BookingCreateDto bookingCreateDto);
 
+    List<BookingBatchResultDto> createAll(Long userId, List<BookingCreateDto> bookingCreateDtos);
+
     BookingDto approve(Long userId, Long bookingId, Boolean approved);
 
     BookingDto get(Long userId, Long bookingId);
@@ -15,4 +19,8 @@ public interface BookingService {
     List<BookingDto> getAllByUser(Long userId, String state, Integer from, Integer size);
 
     List<BookingDto> getAllByOwner(Long userId, String state, Integer from, Integer size);
+
+    BookingPageDto getAllByUserAfter(Long userId, String state, String cursor, Integer size);
+
+    BookingPageDto getAllByOwnerAfter(Long userId, String state, String cursor, Integer size);
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.dao.BookingInterval;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.ItemBookingInterval;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс подтверждённых бронирований по вещам: отвечает, свободна ли вещь на период,
+ * без обращения к базе, если вещь уже в индексе.
+ *
+ * <p>Вещь загружается при первом запросе, новые подтверждения добавляются после коммита.
+ * И то и другое должно выполняться под блокировкой вещи из {@link ItemLockRegistry}, иначе загрузка
+ * может вернуть в индекс снимок без только что подтверждённого бронирования.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final Map<Long, Intervals> intervalsByItemId;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository, BookingProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        int maxItems = properties.getAvailabilityCacheItems();
+        this.intervalsByItemId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Intervals> eldest) {
+                if (size() > maxItems) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = meterRegistry.counter("shareit.booking.availability.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.booking.availability.lookups", "result", "miss");
+        this.evictions = meterRegistry.counter("shareit.booking.availability.evictions");
+        Gauge.builder("shareit.booking.availability.items", this, ItemAvailabilityIndex::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Intervals intervals = get(itemId);
+        if (intervals != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            // Загрузка идёт вне монитора индекса, чтобы медленный запрос не задерживал другие вещи
+            intervals = Intervals.of(bookingRepository.findApprovedIntervals(itemId));
+            put(itemId, intervals);
+        }
+        return !intervals.overlaps(start, end);
+    }
+
+    /**
+     * Загружает одним запросом вещи, которых ещё нет в индексе, чтобы следующие {@link #isFree} по ним
+     * не ходили в базу поодиночке. Вызывается под блокировками всех этих вещей.
+     */
+    public void loadMissing(Collection<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> get(itemId) == null)
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        misses.increment(missing.size());
+
+        Map<Long, List<BookingInterval>> intervalsByItem = new HashMap<>();
+        for (ItemBookingInterval interval : bookingRepository.findApprovedIntervals(missing)) {
+            intervalsByItem.computeIfAbsent(interval.getItemId(), itemId -> new ArrayList<>()).add(interval);
+        }
+        for (Long itemId : missing) {
+            put(itemId, Intervals.of(intervalsByItem.getOrDefault(itemId, List.of())));
+        }
+    }
+
+    /**
+     * Добавляет период после коммита. Вызывается только после того, как эта транзакция сама перевела
+     * бронирование в APPROVED: удаления из индекса нет, и лишний период остался бы до вытеснения вещи.
+     */
+    public void addAfterCommit(Long itemId, LocalDateTime start, LocalDateTime end) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(itemId, start, end);
+            }
+        });
+    }
+
+    private synchronized Intervals get(Long itemId) {
+        return intervalsByItemId.get(itemId);
+    }
+
+    private synchronized void put(Long itemId, Intervals intervals) {
+        intervalsByItemId.put(itemId, intervals);
+    }
+
+    // Отсутствующую вещь не загружаем: она прочитается из базы целиком при первом запросе
+    private synchronized void add(Long itemId, LocalDateTime start, LocalDateTime end) {
+        intervalsByItemId.computeIfPresent(itemId, (id, intervals) -> intervals.with(start, end));
+    }
+
+    private synchronized int size() {
+        return intervalsByItemId.size();
+    }
+
+    /**
+     * Неизменяемый список периодов, отсортированный по началу. maxEnds[i] — наибольшее окончание среди
+     * первых i + 1 периодов, поэтому проверка пересечения сводится к одному бинарному поиску.
+     */
+    static final class Intervals {
+        private static final Intervals EMPTY = new Intervals(new LocalDateTime[0], new LocalDateTime[0]);
+
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] maxEnds;
+
+        private Intervals(LocalDateTime[] starts, LocalDateTime[] maxEnds) {
+            this.starts = starts;
+            this.maxEnds = maxEnds;
+        }
+
+        static Intervals of(List<BookingInterval> sortedByStart) {
+            if (sortedByStart.isEmpty()) {
+                return EMPTY;
+            }
+            LocalDateTime[] starts = new LocalDateTime[sortedByStart.size()];
+            LocalDateTime[] maxEnds = new LocalDateTime[sortedByStart.size()];
+            for (int i = 0; i < starts.length; i++) {
+                BookingInterval interval = sortedByStart.get(i);
+                starts[i] = interval.getStart();
+                maxEnds[i] = i == 0 ? interval.getEnd() : max(maxEnds[i - 1], interval.getEnd());
+            }
+            return new Intervals(starts, maxEnds);
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int last = lastStartBefore(end);
+            return last >= 0 && maxEnds[last].isAfter(start);
+        }
+
+        Intervals with(LocalDateTime start, LocalDateTime end) {
+            int position = lastStartBefore(start) + 1;
+            LocalDateTime[] newStarts = new LocalDateTime[starts.length + 1];
+            LocalDateTime[] newMaxEnds = Arrays.copyOf(maxEnds, starts.length + 1);
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(starts, position, newStarts, position + 1, starts.length - position);
+            newStarts[position] = start;
+
+            LocalDateTime runningMax = position == 0 ? end : max(maxEnds[position - 1], end);
+            newMaxEnds[position] = runningMax;
+            for (int i = position + 1; i < newMaxEnds.length; i++) {
+                runningMax = max(runningMax, maxEnds[i - 1]);
+                newMaxEnds[i] = runningMax;
+            }
+            return new Intervals(newStarts, newMaxEnds);
+        }
+
+        // Индекс последнего периода, начинающегося строго раньше time, или -1
+        private int lastStartBefore(LocalDateTime time) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle].isBefore(time)) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+
+        private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingProperties;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые блокировки по id вещи: операции над бронированиями одной вещи выполняются по очереди,
+ * разные вещи в общем случае не мешают друг другу.
+ *
+ * <p>Блокировка держится до завершения текущей транзакции, чтобы следующий поток увидел уже
+ * зафиксированные изменения. Защищает только в пределах одного экземпляра сервера.
+ */
+@Component
+public class ItemLockRegistry {
+    private final ReentrantLock[] stripes;
+
+    public ItemLockRegistry(BookingProperties properties) {
+        stripes = new ReentrantLock[Math.max(1, properties.getLockStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockUntilCompletion(Long itemId) {
+        lockUntilCompletion(stripes[stripe(itemId)]);
+    }
+
+    /**
+     * Блокирует несколько вещей до завершения транзакции. Полосы берутся по возрастанию номера, поэтому
+     * две транзакции с общими вещами не могут ждать друг друга по кругу.
+     */
+    public void lockAllUntilCompletion(Collection<Long> itemIds) {
+        itemIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .forEach(stripe -> lockUntilCompletion(stripes[stripe]));
+    }
+
+    private int stripe(Long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), stripes.length);
+    }
+
+    private void lockUntilCompletion(ReentrantLock lock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи требует активной транзакции");
+        }
+
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
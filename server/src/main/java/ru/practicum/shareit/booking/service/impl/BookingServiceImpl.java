@@ -2,26 +2,46 @@ package ru.practicum.shareit.booking.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingProperties;
 import ru.practicum.shareit.booking.dao.BookingMapper;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.BookingScope;
+import ru.practicum.shareit.booking.dao.State;
 import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.service.ItemLockRegistry;
+import ru.practicum.shareit.common.FromSizeRequest;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,6 +53,11 @@ public class BookingServiceImpl implements BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingMapper bookingMapper;
+    private final ItemLockRegistry itemLocks;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ResourceVersions resourceVersions;
+    private final BookingProperties bookingProperties;
 
     @Override
     @Transactional
@@ -42,6 +67,95 @@ public class BookingServiceImpl implements BookingService {
         Item item = itemRepository.findById(bookingCreateDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь с id=" + bookingCreateDto.getItemId() + " не найдена"));
 
+        checkCanBook(userId, item, bookingCreateDto);
+
+        itemLocks.lockUntilCompletion(item.getId());
+        checkNoApprovedOverlap(item.getId(), bookingCreateDto.getStart(), bookingCreateDto.getEnd());
+
+        Booking booking = newBooking(bookingCreateDto, item, booker);
+        itemDetailsCache.evictAfterCommit(item.getId());
+        resourceVersions.changedAfterCommit(ResourceVersions.bookings(userId),
+                ResourceVersions.bookings(item.getOwner().getId()));
+
+        return bookingMapper.toBookingDto(bookingRepository.save(booking));
+    }
+
+    /**
+     * Те же проверки, что и в {@link #create}, но ошибка одного бронирования не отменяет остальные: она попадает
+     * в его результат. Пользователь и вещи загружаются общими запросами, периоды занятости вещей — одним запросом
+     * под блокировками всех вещей пакета, а принятые бронирования сохраняются одной пачкой INSERT.
+     */
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createAll(Long userId, List<BookingCreateDto> bookingCreateDtos) {
+        if (bookingCreateDtos.size() > bookingProperties.getMaxBatchSize()) {
+            throw new ValidationException("За один запрос можно создать не больше "
+                    + bookingProperties.getMaxBatchSize() + " бронирований");
+        }
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+
+        Set<Long> itemIds = bookingCreateDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingCreateDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemIds.isEmpty() ? Map.of() : itemRepository.findWithOwnerByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        itemLocks.lockAllUntilCompletion(items.keySet());
+        availabilityIndex.loadMissing(items.keySet());
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingCreateDtos.size()];
+        Booking[] accepted = new Booking[bookingCreateDtos.size()];
+        for (int i = 0; i < results.length; i++) {
+            BookingCreateDto bookingCreateDto = bookingCreateDtos.get(i);
+            try {
+                if (bookingCreateDto == null || bookingCreateDto.getItemId() == null) {
+                    throw new ValidationException("itemId", "не должно быть пустым");
+                }
+                Item item = items.get(bookingCreateDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Вещь с id=" + bookingCreateDto.getItemId() + " не найдена");
+                }
+                checkCanBook(userId, item, bookingCreateDto);
+                checkNoApprovedOverlap(item.getId(), bookingCreateDto.getStart(), bookingCreateDto.getEnd());
+                accepted[i] = newBooking(bookingCreateDto, item, booker);
+            } catch (ValidationException e) {
+                results[i] = failed(HttpStatus.BAD_REQUEST, e);
+            } catch (NotFoundException e) {
+                results[i] = failed(HttpStatus.NOT_FOUND, e);
+            } catch (ConflictException e) {
+                results[i] = failed(HttpStatus.CONFLICT, e);
+            }
+        }
+
+        List<Booking> bookings = Arrays.stream(accepted)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!bookings.isEmpty()) {
+            bookingRepository.saveAll(bookings);
+            List<String> changed = new ArrayList<>();
+            changed.add(ResourceVersions.bookings(userId));
+            bookings.stream()
+                    .map(booking -> booking.getItem().getOwner().getId())
+                    .distinct()
+                    .forEach(ownerId -> changed.add(ResourceVersions.bookings(ownerId)));
+            itemDetailsCache.evictAfterCommit(bookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet()));
+            resourceVersions.changedAfterCommit(changed);
+        }
+        log.info("Пользователь с id={} создал {} из {} бронирований", userId, bookings.size(), results.length);
+
+        for (int i = 0; i < results.length; i++) {
+            if (accepted[i] != null) {
+                results[i] = created(bookingMapper.toBookingDto(accepted[i]));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private static void checkCanBook(Long userId, Item item, BookingCreateDto bookingCreateDto) {
         if (!item.getIsAvailable()) {
             throw new ValidationException("Вещь с id=" + bookingCreateDto.getItemId() + " недоступна для бронирования");
         }
@@ -50,19 +164,38 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Нельзя забронировать свою вещь");
         }
 
+        if (bookingCreateDto.getStart() == null || bookingCreateDto.getEnd() == null) {
+            throw new ValidationException("Даты начала и окончания бронирования должны быть заданы");
+        }
+
         if (bookingCreateDto.getEnd().isBefore(bookingCreateDto.getStart()) ||
                 bookingCreateDto.getEnd().equals(bookingCreateDto.getStart())) {
             throw new ValidationException("Дата окончания бронирования должна быть позже даты начала");
         }
+    }
 
+    private static Booking newBooking(BookingCreateDto bookingCreateDto, Item item, User booker) {
         Booking booking = new Booking();
         booking.setStart(bookingCreateDto.getStart());
         booking.setEnd(bookingCreateDto.getEnd());
         booking.setItem(item);
         booking.setBooker(booker);
         booking.setStatus(Status.WAITING);
+        return booking;
+    }
 
-        return bookingMapper.toBookingDto(bookingRepository.save(booking));
+    private static BookingBatchResultDto created(BookingDto booking) {
+        BookingBatchResultDto result = new BookingBatchResultDto();
+        result.setStatus(HttpStatus.CREATED.value());
+        result.setBooking(booking);
+        return result;
+    }
+
+    private static BookingBatchResultDto failed(HttpStatus status, RuntimeException e) {
+        BookingBatchResultDto result = new BookingBatchResultDto();
+        result.setStatus(status.value());
+        result.setError(e.getMessage());
+        return result;
     }
 
     @Override
@@ -75,12 +208,40 @@ public class BookingServiceImpl implements BookingService {
             throw new AccessDeniedException("Подтверждать бронирование может только владелец вещи");
         }
 
-        if (!booking.getStatus().equals(Status.WAITING)) {
+        // Статус решается под блокировкой вещи: иначе одновременные подтверждение и отклонение оба увидят WAITING
+        Long itemId = booking.getItem().getId();
+        itemLocks.lockUntilCompletion(itemId);
+        if (bookingRepository.findStatusById(bookingId) != Status.WAITING) {
             throw new ValidationException("Статус бронирования уже установлен");
         }
 
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return bookingMapper.toBookingDto(booking);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        if (approved) {
+            checkNoApprovedOverlap(itemId, booking.getStart(), booking.getEnd());
+        }
+        // Условное обновление защищает и от другого экземпляра сервера, где блокировка вещи не действует
+        if (bookingRepository.updateStatus(bookingId, Status.WAITING, status) == 0) {
+            throw new ValidationException("Статус бронирования уже установлен");
+        }
+        if (approved) {
+            availabilityIndex.addAfterCommit(itemId, booking.getStart(), booking.getEnd());
+        }
+
+        itemDetailsCache.evictAfterCommit(itemId);
+        resourceVersions.changedAfterCommit(ResourceVersions.bookings(booking.getBooker().getId()),
+                ResourceVersions.bookings(userId));
+        // Загруженная сущность не меняется, иначе Hibernate повторил бы обновление статуса при сбросе
+        BookingDto bookingDto = bookingMapper.toBookingDto(booking);
+        bookingDto.setStatus(status);
+        return bookingDto;
+    }
+
+    // Вызывается под блокировкой вещи, иначе два пересекающихся бронирования могут пройти проверку одновременно
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!availabilityIndex.isFree(itemId, start, end)) {
+            log.error("Вещь с id={} уже забронирована на период {} — {}", itemId, start, end);
+            throw new ConflictException("Вещь с id=" + itemId + " уже забронирована на этот период");
+        }
     }
 
     @Override
@@ -98,99 +259,70 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getAllByUser(Long userId, String state, Integer from, Integer size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
-
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
-
-        switch (state) {
-            case "ALL":
-                bookings = bookingRepository.findByBookerId(userId, sort);
-                break;
-            case "CURRENT":
-                bookings = bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfter(userId, LocalDateTime.now(),
-                        LocalDateTime.now(), sort);
-                break;
-            case "PAST":
-                bookings = bookingRepository.findByBookerIdAndEndIsBefore(userId, LocalDateTime.now(), sort);
-                break;
-            case "FUTURE":
-                bookings = bookingRepository.findByBookerIdAndStartIsAfter(userId, LocalDateTime.now(), sort);
-                break;
-            case "WAITING":
-                bookings = bookingRepository.findByBookerIdAndStatusIs(userId, Status.WAITING, sort);
-                break;
-            case "REJECTED":
-                bookings = bookingRepository.findByBookerIdAndStatusIs(userId, Status.REJECTED, sort);
-                break;
-            default:
-                throw new ValidationException("Unknown state: " + state);
-        }
-
-        // Применяем пагинацию
-        int startIndex = from;
-        int endIndex = Math.min(startIndex + size, bookings.size());
-
-        if (startIndex > bookings.size()) {
-            return List.of();
-        }
-
-        return bookings.subList(startIndex, endIndex).stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return getAll(BookingScope.BOOKER, userId, state, from, size);
     }
 
     @Override
     public List<BookingDto> getAllByOwner(Long userId, String state, Integer from, Integer size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        return getAll(BookingScope.OWNER, userId, state, from, size);
+    }
 
-        List<Long> itemIds = itemRepository.findByOwnerId(userId).stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
+    @Override
+    public BookingPageDto getAllByUserAfter(Long userId, String state, String cursor, Integer size) {
+        return getAllAfter(BookingScope.BOOKER, userId, state, cursor, size);
+    }
+
+    @Override
+    public BookingPageDto getAllByOwnerAfter(Long userId, String state, String cursor, Integer size) {
+        return getAllAfter(BookingScope.OWNER, userId, state, cursor, size);
+    }
+
+    private List<BookingDto> getAll(BookingScope scope, Long userId, String state, Integer from, Integer size) {
+        checkUserExists(userId);
 
-        if (itemIds.isEmpty()) {
-            return List.of();
-        }
-
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
-
-        switch (state) {
-            case "ALL":
-                bookings = bookingRepository.findByItemIdIn(itemIds, sort);
-                break;
-            case "CURRENT":
-                bookings = bookingRepository.findByItemIdInAndStartIsBeforeAndEndIsAfter(itemIds, LocalDateTime.now(),
-                        LocalDateTime.now(), sort);
-                break;
-            case "PAST":
-                bookings = bookingRepository.findByItemIdInAndEndIsBefore(itemIds, LocalDateTime.now(), sort);
-                break;
-            case "FUTURE":
-                bookings = bookingRepository.findByItemIdInAndStartIsAfter(itemIds, LocalDateTime.now(), sort);
-                break;
-            case "WAITING":
-                bookings = bookingRepository.findByItemIdInAndStatusIs(itemIds, Status.WAITING, sort);
-                break;
-            case "REJECTED":
-                bookings = bookingRepository.findByItemIdInAndStatusIs(itemIds, Status.REJECTED, sort);
-                break;
-            default:
-                throw new ValidationException("Unknown state: " + state);
-        }
-
-        // Применяем пагинацию
-        int startIndex = from;
-        int endIndex = Math.min(startIndex + size, bookings.size());
-
-        if (startIndex > bookings.size()) {
-            return List.of();
-        }
-
-        return bookings.subList(startIndex, endIndex).stream()
+        return bookingRepository.findByState(scope, userId, toState(state), LocalDateTime.now(),
+                        FromSizeRequest.of(from, size, Sort.unsorted())).stream()
                 .map(bookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private BookingPageDto getAllAfter(BookingScope scope, Long userId, String state, String cursor, Integer size) {
+        checkUserExists(userId);
+
+        if (size == null || size <= 0) {
+            throw new ValidationException("size", "должно быть положительным числом");
+        }
+        if (size > bookingProperties.getMaxPageSize()) {
+            throw new ValidationException("size", "должно быть не больше " + bookingProperties.getMaxPageSize());
+        }
+        BookingCursor position = cursor == null || cursor.isBlank() ? null : BookingCursor.decode(cursor);
+
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<Booking> bookings = bookingRepository.findByStateAfter(scope, userId, toState(state),
+                LocalDateTime.now(), position != null ? position.getStart() : null,
+                position != null ? position.getId() : null, Limit.of(size + 1));
+
+        BookingPageDto page = new BookingPageDto();
+        page.setBookings(bookings.stream()
+                .limit(size)
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList()));
+
+        if (bookings.size() > size) {
+            page.setNextCursor(BookingCursor.after(page.getBookings().getLast()).encode());
+        }
+
+        return page;
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+    }
+
+    private static State toState(String state) {
+        return State.from(state)
+                .orElseThrow(() -> new ValidationException("Unknown state: " + state));
+    }
+}
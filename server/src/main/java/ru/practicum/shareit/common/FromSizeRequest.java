@@ -0,0 +1,49 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Pageable для параметров from/size: в отличие от {@link PageRequest} смещение
+ * не обязано быть кратным размеру страницы, поэтому передаётся в запрос как есть.
+ */
+public class FromSizeRequest extends PageRequest {
+    private final int from;
+
+    protected FromSizeRequest(int from, int size, Sort sort) {
+        super(from / size, size, sort);
+        this.from = from;
+    }
+
+    public static FromSizeRequest of(Integer from, Integer size, Sort sort) {
+        if (from == null || from < 0) {
+            throw new ValidationException("from", "должно быть неотрицательным числом");
+        }
+        if (size == null || size <= 0) {
+            throw new ValidationException("size", "должно быть положительным числом");
+        }
+        return new FromSizeRequest(from, size, sort);
+    }
+
+    @Override
+    public long getOffset() {
+        return from;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FromSizeRequest other)) {
+            return false;
+        }
+        return from == other.from && super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + from;
+    }
+}
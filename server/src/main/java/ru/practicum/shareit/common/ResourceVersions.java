@@ -0,0 +1,92 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Версии ответов GET для ETag: каждое изменение данных после коммита увеличивает версию затронутых областей,
+ * поэтому совпадение If-None-Match проверяется без запросов к базе и сериализации ответа.
+ *
+ * <p>Версии берутся из общего счётчика и только растут. Вытесненная из памяти область получает версию не меньше
+ * любой, которую она имела, поэтому выданный ранее тег после изменения уже не совпадёт. Момент запуска входит
+ * в тег, чтобы теги не повторялись после перезапуска сервера.
+ */
+@Component
+public class ResourceVersions {
+    public static final String REQUESTS = "requests";
+
+    private static final int MAX_KEYS = 100_000;
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<String, Long> versions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            if (size() > MAX_KEYS) {
+                evictedVersion = Math.max(evictedVersion, eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private long lastVersion;
+    // Не меньше версии любой вытесненной области; её получают области, которых нет в памяти
+    private long evictedVersion;
+
+    public static String item(long itemId) {
+        return "item:" + itemId;
+    }
+
+    public static String bookings(long userId) {
+        return "bookings:" + userId;
+    }
+
+    /**
+     * Тег текущей версии области; qualifiers различают ответы одной области, например для разных пользователей.
+     * Вызывается до чтения данных, иначе тег может оказаться новее ответа.
+     */
+    public String etag(String key, Object... qualifiers) {
+        return etag(version(key), qualifiers);
+    }
+
+    /**
+     * Тег для версии, прочитанной до данных, если часть qualifiers известна только из самого ответа.
+     */
+    public String etag(long version, Object... qualifiers) {
+        StringJoiner tag = new StringJoiner("-", "\"", "\"");
+        tag.add(Long.toString(epoch, 36)).add(Long.toString(version, 36));
+        for (Object qualifier : qualifiers) {
+            tag.add(String.valueOf(qualifier));
+        }
+        return tag.toString();
+    }
+
+    public void changedAfterCommit(String... keys) {
+        changedAfterCommit(List.of(keys));
+    }
+
+    public void changedAfterCommit(List<String> keys) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changed(keys);
+            }
+        });
+    }
+
+    public synchronized void changed(List<String> keys) {
+        for (String key : keys) {
+            versions.put(key, ++lastVersion);
+        }
+    }
+
+    public synchronized long version(String key) {
+        Long version = versions.get(key);
+        return version != null ? version : evictedVersion;
+    }
+}
@@ -28,6 +28,13 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(e.getMessage(), LocalDateTime.now());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflict(ConflictException e) {
+        log.error("ConflictException: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage(), LocalDateTime.now());
+    }
+
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidation(ValidationException e) {
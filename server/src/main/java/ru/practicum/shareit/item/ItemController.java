@@ -2,15 +2,24 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.importing.ItemImportFormat;
+import ru.practicum.shareit.item.importing.ItemImportService;
 import ru.practicum.shareit.item.service.CommentService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
@@ -23,6 +32,8 @@ public class ItemController {
 
     private final ItemService service;
     private final CommentService commentService;
+    private final ItemImportService importService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -32,6 +43,15 @@ public class ItemController {
         return service.create(itemData, userId);
     }
 
+    @PostMapping(value = "/import", consumes = {ItemImportFormat.NDJSON_VALUE, ItemImportFormat.CSV_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public ItemImportResultDto importItems(@RequestHeader(OWNER_HEADER) Long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        log.info("POST /items/import -> {} | userid={}", contentType, userId);
+        return importService.importItems(userId, contentType, body);
+    }
+
     @PatchMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
     public ItemDto update(@RequestHeader(OWNER_HEADER) Long userId,
@@ -49,18 +69,27 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    @ResponseStatus(HttpStatus.OK)
     public ItemDto retrieve(@RequestHeader(OWNER_HEADER) Long userId,
-            @PathVariable long itemId) {
+            @PathVariable long itemId,
+            WebRequest webRequest) {
         log.info("GET /items/{} | userid={}", itemId, userId);
-        return service.retrieve(itemId, userId);
+        long version = resourceVersions.version(ResourceVersions.item(itemId));
+        ItemDto itemDto = service.retrieve(itemId, userId);
+
+        // Даты бронирований меняются со временем без изменения версии, поэтому входят в тег ответа владельцу
+        String etag = userId.equals(itemDto.getOwnerId())
+                ? resourceVersions.etag(version, "o", itemDto.getLastBooking(), itemDto.getNextBooking())
+                : resourceVersions.etag(version, "u");
+        return webRequest.checkNotModified(etag) ? null : itemDto;
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemDto> search(@RequestParam String text) {
-        log.info("GET /items/search?text={}", text);
-        return service.search(text);
+    public List<ItemDto> search(@RequestParam String text,
+                                @RequestParam(defaultValue = "0") Integer from,
+                                @RequestParam(defaultValue = "10") Integer size) {
+        log.info("GET /items/search?text={}&from={}&size={}", text, from, size);
+        return service.search(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.practicum.shareit.item.search.SearchMode;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item")
+public class ItemProperties {
+    /**
+     * Сколько последних комментариев встраивать в каждую вещь списка GET /items; без значения — все.
+     */
+    private Integer listCommentsLimit;
+
+    /**
+     * Способ поиска для GET /items/search.
+     */
+    private SearchMode searchMode = SearchMode.SQL;
+
+    /**
+     * Сколько ответов GET /items/{itemId} держать в кэше; при переполнении вытесняются давно не запрашиваемые.
+     */
+    private int detailsCacheEntries = 10_000;
+
+    /**
+     * Сколько строк POST /items/import сохраняется одной транзакцией. Строки читаются из запроса по мере
+     * сохранения, поэтому в памяти держится не больше одной пачки.
+     */
+    private int importBatchSize = 1000;
+
+    /**
+     * Сколько ошибок строк перечислять в ответе POST /items/import; число строк с ошибками считается полностью.
+     */
+    private int importMaxErrors = 1000;
+}
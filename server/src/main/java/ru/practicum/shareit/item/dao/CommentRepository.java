@@ -1,12 +1,45 @@
 package ru.practicum.shareit.item.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
-}
\ No newline at end of file
+    @Query("""
+            select c from Comment c
+            join fetch c.author
+            where c.item.id in :itemIds
+            order by c.created desc
+            """)
+    List<Comment> findByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Id не более {@code limit} последних комментариев каждой вещи.
+     */
+    @Query(value = """
+            select ranked.id from (
+                select c.id, row_number() over (partition by c.item_id order by c.created desc) as rn
+                from comments c
+                where c.item_id in (:itemIds)
+            ) ranked
+            where ranked.rn <= :limit
+            """, nativeQuery = true)
+    List<Long> findRecentIdsByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("""
+            select c from Comment c
+            join fetch c.author
+            where c.id in :ids
+            order by c.created desc
+            """)
+    List<Comment> findByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct c.item.id from Comment c where c.author.id = :authorId")
+    List<Long> findItemIdsByAuthorId(@Param("authorId") Long authorId);
+}
@@ -13,6 +13,9 @@ public interface ItemMapper {
 
     @Mapping(source = "owner.id", target = "ownerId")
     @Mapping(source = "isAvailable", target = "available")
+    // Комментарии заполняет ItemCommentLoader для всех вещей ответа сразу, иначе обращение к ленивой коллекции
+    // даёт запрос на каждую вещь
+    @Mapping(target = "comments", ignore = true)
     ItemDto toItemDto(Item item);
 
     @Mapping(source = "ownerId", target = "owner", qualifiedByName = "mapOwnerIdToUser")
@@ -1,23 +1,69 @@
 package ru.practicum.shareit.item.dao;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwnerId(Long ownerId);
 
-    List<Item> findByRequestId(Long requestId);
+    List<Item> findByRequestIdIn(Collection<Long> requestIds);
 
+    // Вещи вместе с владельцем и запросом: иначе они догружаются отдельным запросом на каждую вещь
     @Query("""
             select i from Item i
-            where (upper(i.name) like upper(concat('%', ?1, '%'))
-                  or upper(i.description) like upper(concat('%', ?1, '%')))
+            join fetch i.owner
+            left join fetch i.request r
+            left join fetch r.author
+            where i.id in :ids
+            """)
+    List<Item> findWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<ItemSearchView> findByIdGreaterThanOrderById(Long id, Limit limit);
+
+    /**
+     * Сначала совпадение целым словом в названии, затем частью названия, затем словом и частью описания.
+     * Целое слово отделено пробелами или краем поля. Символы % и _ в text должны быть экранированы
+     * обратной косой чертой, см. {@link ru.practicum.shareit.item.search.SqlItemSearcher}.
+     */
+    @Query("""
+            select i from Item i
+            where (lower(i.name) like concat('%', lower(:text), '%') escape '\\'
+                  or lower(i.description) like concat('%', lower(:text), '%') escape '\\')
                   and i.isAvailable = true
+            order by case
+                when lower(concat(' ', i.name, ' ')) like concat('% ', lower(:text), ' %') escape '\\' then 0
+                when lower(i.name) like concat('%', lower(:text), '%') escape '\\' then 1
+                when lower(concat(' ', i.description, ' ')) like concat('% ', lower(:text), ' %') escape '\\' then 2
+                else 3
+            end, i.id
             """)
-    List<Item> searchAvailableItems(String text);
-}
\ No newline at end of file
+    List<Item> searchAvailableItems(@Param("text") String text, Pageable pageable);
+
+    /**
+     * Полнотекстовый поиск PostgreSQL по колонке search_vector из schema-postgresql.sql с тем же порядком,
+     * что и {@link #searchAvailableItems}: exactQuery — слова запроса целиком, prefixQuery — как префиксы.
+     */
+    @Query(value = """
+            select i.* from items i,
+                 to_tsquery('simple', :prefixQuery) prefix_query,
+                 to_tsquery('simple', :exactQuery) exact_query
+            where i.search_vector @@ prefix_query and i.is_available = true
+            order by case
+                when to_tsvector('simple', i.name) @@ exact_query then 0
+                when to_tsvector('simple', i.name) @@ prefix_query then 1
+                when to_tsvector('simple', i.description) @@ exact_query then 2
+                else 3
+            end, ts_rank(i.search_vector, prefix_query) desc, i.id
+            """, nativeQuery = true)
+    List<Item> fullTextSearchAvailableItems(@Param("prefixQuery") String prefixQuery,
+                                            @Param("exactQuery") String exactQuery, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dao;
+
+/**
+ * Поля вещи, которые нужны индексу поиска.
+ */
+public interface ItemSearchView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getIsAvailable();
+}
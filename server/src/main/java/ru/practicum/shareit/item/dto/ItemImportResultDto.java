@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог POST /items/import: rows — прочитано строк с данными, imported — сохранено вещей, failed — строк
+ * с ошибками. В errors перечислены первые из них, не больше shareit.item.import-max-errors.
+ */
+@Data
+public class ItemImportResultDto {
+    private long rows;
+    private long imported;
+    private long failed;
+    private List<ItemImportErrorDto> errors = new ArrayList<>();
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV с заголовком: колонки name, description, available и необязательная requestId в любом порядке,
+ * без учёта регистра. Значения в кавычках могут содержать запятые и переводы строк.
+ *
+ * <p>Записи читаются как массивы строк и переводятся в {@link ItemCreateDto} здесь же, поэтому неверное
+ * значение портит только свою строку. После нарушения самой разметки CSV (незакрытая кавычка) границы
+ * следующих записей неизвестны, и чтение останавливается.
+ */
+class CsvItemRowReader implements ItemRowReader {
+    private static final CsvMapper MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build();
+
+    private final Reader reader;
+    private final MappingIterator<String[]> records;
+    private final int nameColumn;
+    private final int descriptionColumn;
+    private final int availableColumn;
+    private final int requestIdColumn;
+    private boolean stopped;
+
+    CsvItemRowReader(Reader reader) throws IOException {
+        this.reader = reader;
+        this.records = MAPPER.readerFor(String[].class).readValues(reader);
+        if (!records.hasNextValue()) {
+            throw new ValidationException("Нет строки заголовка CSV");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        String[] header = records.nextValue();
+        for (int i = 0; i < header.length; i++) {
+            columns.putIfAbsent(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        this.nameColumn = requiredColumn(columns, "name");
+        this.descriptionColumn = requiredColumn(columns, "description");
+        this.availableColumn = requiredColumn(columns, "available");
+        this.requestIdColumn = columns.getOrDefault("requestid", -1);
+    }
+
+    @Override
+    public ItemImportRow next() throws IOException {
+        if (stopped) {
+            return null;
+        }
+        long line = records.getParser().currentLocation().getLineNr();
+        try {
+            if (!records.hasNextValue()) {
+                return null;
+            }
+            return toRow(line, records.nextValue());
+        } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+            stopped = true;
+            return ItemImportRow.failed(line, "Некорректный CSV, дальнейшие строки не прочитаны: " + e.getMessage());
+        }
+    }
+
+    private ItemImportRow toRow(long line, String[] values) {
+        ItemCreateDto item = new ItemCreateDto();
+        item.setName(value(values, nameColumn));
+        item.setDescription(value(values, descriptionColumn));
+
+        String available = trimmed(value(values, availableColumn));
+        if (available != null) {
+            if (available.equalsIgnoreCase("true") || available.equalsIgnoreCase("false")) {
+                item.setAvailable(Boolean.parseBoolean(available));
+            } else {
+                return ItemImportRow.invalid(line, "available", "ожидалось true или false");
+            }
+        }
+
+        String requestId = trimmed(value(values, requestIdColumn));
+        if (requestId != null) {
+            try {
+                item.setRequestId(Long.parseLong(requestId));
+            } catch (NumberFormatException e) {
+                return ItemImportRow.invalid(line, "requestId", "ожидалось число");
+            }
+        }
+        return ItemImportRow.of(line, item);
+    }
+
+    // Пустое значение, как и отсутствующая колонка, означает, что поле не задано
+    private static String value(String[] values, int column) {
+        if (column < 0 || column >= values.length || values[column].isEmpty()) {
+            return null;
+        }
+        return values[column];
+    }
+
+    private static String trimmed(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private static int requiredColumn(Map<String, Integer> columns, String name) {
+        Integer column = columns.get(name.toLowerCase(Locale.ROOT));
+        if (column == null) {
+            throw new ValidationException("В заголовке CSV нет колонки " + name);
+        }
+        return column;
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+        reader.close();
+    }
+}
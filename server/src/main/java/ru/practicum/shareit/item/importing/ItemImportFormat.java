@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.importing;
+
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Формат тела POST /items/import, определяется заголовком Content-Type.
+ */
+public enum ItemImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_VALUE = MediaType.APPLICATION_NDJSON_VALUE;
+    public static final String CSV_VALUE = "text/csv";
+
+    public static ItemImportFormat from(MediaType contentType) {
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return NDJSON;
+        }
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))) {
+            return CSV;
+        }
+        throw new ValidationException("Неподдерживаемый формат импорта: " + contentType);
+    }
+}
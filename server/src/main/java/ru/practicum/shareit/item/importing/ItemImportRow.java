@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.importing;
+
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+
+/**
+ * Прочитанная строка импорта: вещь или ошибка, из-за которой строка пропускается. line — номер строки файла,
+ * с которой начинается запись.
+ */
+record ItemImportRow(long line, ItemCreateDto item, String error) {
+    static ItemImportRow of(long line, ItemCreateDto item) {
+        return new ItemImportRow(line, item, null);
+    }
+
+    static ItemImportRow failed(long line, String error) {
+        return new ItemImportRow(line, null, error);
+    }
+
+    // Текст как у ValidationException(field, reason), чтобы ошибки импорта читались так же, как ответы POST /items
+    static ItemImportRow invalid(long line, String field, String reason) {
+        return failed(line, String.format("Ошибка валидации поля '%s': %s", field, reason));
+    }
+}
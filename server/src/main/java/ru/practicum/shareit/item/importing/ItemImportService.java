@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.ResourceVersions;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemProperties;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт вещей POST /items/import из NDJSON или CSV.
+ *
+ * <p>Тело читается потоком: строки проверяются по одной и сохраняются пачками по
+ * shareit.item.import-batch-size, каждая пачка — в своей транзакции. Поэтому память не зависит от размера
+ * файла, а при обрыве загрузки остаются сохранёнными все пачки до последней полной. Строка с ошибкой
+ * пропускается и попадает в ответ с номером строки файла, остальные строки импортируются.
+ *
+ * <p>На PostgreSQL пачка записывается одной командой COPY, на других базах — пакетными INSERT.
+ * Ход импорта виден в логе по пачкам и в метрике shareit.item.import.rows с тегом result.
+ */
+@Slf4j
+@Service
+public class ItemImportService {
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 1024;
+
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearcher itemSearcher;
+    private final ResourceVersions resourceVersions;
+    private final ItemProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final JpaItemImportWriter jpaWriter;
+    private final CopyItemImportWriter copyWriter;
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private volatile ItemImportWriter writer;
+
+    public ItemImportService(UserRepository userRepository, ItemRequestRepository itemRequestRepository,
+                             ItemSearcher itemSearcher, ResourceVersions resourceVersions,
+                             ItemProperties properties, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager, JpaItemImportWriter jpaWriter,
+                             CopyItemImportWriter copyWriter, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearcher = itemSearcher;
+        this.resourceVersions = resourceVersions;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jpaWriter = jpaWriter;
+        this.copyWriter = copyWriter;
+        this.importedRows = meterRegistry.counter("shareit.item.import.rows", "result", "imported");
+        this.failedRows = meterRegistry.counter("shareit.item.import.rows", "result", "failed");
+    }
+
+    public ItemImportResultDto importItems(long userId, MediaType contentType, InputStream body) throws IOException {
+        if (!userRepository.existsById(userId)) {
+            log.error("Пользователь с id={} не найден", userId);
+            throw new NotFoundException(String.format("Пользователь с id=%s не найден", userId));
+        }
+        ItemImportFormat format = ItemImportFormat.from(contentType);
+        Charset charset = Objects.requireNonNullElse(contentType.getCharset(), StandardCharsets.UTF_8);
+
+        ItemImportResultDto result = new ItemImportResultDto();
+        List<ItemImportRow> batch = new ArrayList<>(properties.getImportBatchSize());
+        try (ItemRowReader rows = open(format, new InputStreamReader(body, charset))) {
+            ItemImportRow row;
+            while ((row = rows.next()) != null) {
+                result.setRows(result.getRows() + 1);
+                ItemImportRow checked = row.error() != null ? row : validate(row);
+                if (checked.error() != null) {
+                    fail(result, checked.line(), checked.error());
+                } else {
+                    batch.add(row);
+                    if (batch.size() == properties.getImportBatchSize()) {
+                        saveBatch(userId, batch, result);
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(userId, batch, result);
+        }
+        log.info("Импорт вещей пользователя с id={} завершён: строк {}, сохранено {}, с ошибками {}",
+                userId, result.getRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private ItemRowReader open(ItemImportFormat format, Reader reader) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonItemRowReader(reader, objectMapper);
+            case CSV -> new CsvItemRowReader(reader);
+        };
+    }
+
+    private void saveBatch(long userId, List<ItemImportRow> batch, ItemImportResultDto result) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> requestIds = batch.stream()
+                    .map(row -> row.item().getRequestId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Set<Long> existingRequestIds = requestIds.isEmpty()
+                    ? Set.of()
+                    : itemRequestRepository.findExistingIds(requestIds);
+
+            List<ItemCreateDto> items = new ArrayList<>(batch.size());
+            for (ItemImportRow row : batch) {
+                Long requestId = row.item().getRequestId();
+                if (requestId != null && !existingRequestIds.contains(requestId)) {
+                    fail(result, row.line(), String.format("Запрос с id=%s не найден", requestId));
+                } else {
+                    items.add(row.item());
+                }
+            }
+            if (items.isEmpty()) {
+                return;
+            }
+
+            List<Item> saved = writer().write(userId, items);
+            saved.forEach(itemSearcher::onItemSaved);
+            if (!existingRequestIds.isEmpty()) {
+                resourceVersions.changedAfterCommit(ResourceVersions.REQUESTS);
+            }
+            result.setImported(result.getImported() + saved.size());
+            importedRows.increment(saved.size());
+        });
+        log.info("Импорт вещей пользователя с id={}: прочитано строк {}, сохранено {}, с ошибками {}",
+                userId, result.getRows(), result.getImported(), result.getFailed());
+        batch.clear();
+    }
+
+    private ItemImportWriter writer() {
+        ItemImportWriter current = writer;
+        if (current == null) {
+            current = copyWriter.isAvailable() ? copyWriter : jpaWriter;
+            log.info("Импорт вещей записывает пачки через {}", current.getClass().getSimpleName());
+            writer = current;
+        }
+        return current;
+    }
+
+    private void fail(ItemImportResultDto result, long line, String error) {
+        result.setFailed(result.getFailed() + 1);
+        failedRows.increment();
+        if (result.getErrors().size() < properties.getImportMaxErrors()) {
+            result.getErrors().add(new ItemImportErrorDto(line, error));
+        }
+    }
+
+    // Те же правила, что у POST /items в шлюзе, и ограничения колонок items
+    private static ItemImportRow validate(ItemImportRow row) {
+        ItemCreateDto item = row.item();
+        if (item.getName() == null || item.getName().isBlank()) {
+            return ItemImportRow.invalid(row.line(), "name", "не должно быть пустым");
+        }
+        if (item.getName().length() > MAX_NAME_LENGTH) {
+            return ItemImportRow.invalid(row.line(), "name", "длиннее " + MAX_NAME_LENGTH + " символов");
+        }
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return ItemImportRow.invalid(row.line(), "description", "не должно быть пустым");
+        }
+        if (item.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return ItemImportRow.invalid(row.line(), "description", "длиннее " + MAX_DESCRIPTION_LENGTH + " символов");
+        }
+        if (item.getAvailable() == null) {
+            return ItemImportRow.invalid(row.line(), "available", "обязательное поле");
+        }
+        if (item.getRequestId() != null && item.getRequestId() <= 0) {
+            return ItemImportRow.invalid(row.line(), "requestId", "должно быть положительным");
+        }
+        return row;
+    }
+}
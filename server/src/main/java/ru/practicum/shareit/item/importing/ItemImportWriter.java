@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.importing;
+
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Запись пачки проверенных строк импорта в текущей транзакции.
+ */
+public interface ItemImportWriter {
+    /**
+     * Сохраняет вещи владельца ownerId и возвращает их с присвоенными id. id и ownerId из строк не используются.
+     */
+    List<Item> write(long ownerId, List<ItemCreateDto> items);
+}
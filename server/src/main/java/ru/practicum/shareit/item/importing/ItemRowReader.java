@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Чтение строк импорта по одной: следующая строка разбирается, только когда её запросили, поэтому тело запроса
+ * целиком в памяти не держится.
+ */
+interface ItemRowReader extends Closeable {
+    /**
+     * Следующая строка или null, если данные закончились. Ошибка разбора строки возвращается в её
+     * {@link ItemImportRow#error()}, исключение означает только ошибку чтения самого запроса.
+     */
+    ItemImportRow next() throws IOException;
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.importing;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemMapper;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+/**
+ * Запись через Hibernate: id берутся из items_seq блоками, INSERT уходят пачками по hibernate.jdbc.batch_size.
+ */
+@Component
+@RequiredArgsConstructor
+public class JpaItemImportWriter implements ItemImportWriter {
+    private final EntityManager entityManager;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemMapper itemMapper;
+
+    @Override
+    public List<Item> write(long ownerId, List<ItemCreateDto> items) {
+        // Импортированные вещи не кладутся в кэш второго уровня, иначе большой импорт вытеснит из него всё остальное
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+
+        User owner = userRepository.getReferenceById(ownerId);
+        List<Item> entities = items.stream()
+                .map(itemData -> {
+                    Item item = itemMapper.toItem(itemData);
+                    item.setId(null);
+                    item.setOwner(owner);
+                    if (itemData.getRequestId() != null) {
+                        item.setRequest(itemRequestRepository.getReferenceById(itemData.getRequestId()));
+                    }
+                    return item;
+                })
+                .toList();
+        List<Item> saved = itemRepository.saveAll(entities);
+        // При open-in-view контекст постоянства общий для всех пачек запроса: без очистки в нём копились бы
+        // все вещи импорта, и каждый flush проверял бы их заново
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * NDJSON: по одному объекту {@link ItemCreateDto} на строке, пустые строки пропускаются.
+ */
+class NdjsonItemRowReader implements ItemRowReader {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long line;
+
+    NdjsonItemRowReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(reader);
+        this.objectReader = objectMapper.readerFor(ItemCreateDto.class);
+    }
+
+    @Override
+    public ItemImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            ItemCreateDto item = objectReader.readValue(text);
+            return item != null ? ItemImportRow.of(line, item) : ItemImportRow.failed(line, "Ожидался объект JSON");
+        } catch (JsonProcessingException e) {
+            return ItemImportRow.failed(line, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Полнотекстовый поиск по индексу GIN над items.search_vector. Каждое слово запроса ищется как префикс
+ * слова в названии или описании; внутри одной группы совпадений результаты упорядочены по ts_rank.
+ *
+ * <p>Колонка и индекс есть только в PostgreSQL, на других базах (H2 в тестах) поиск идёт через like.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "shareit.item", name = "search-mode", havingValue = "fulltext")
+public class FullTextItemSearcher implements ItemSearcher {
+    private final ItemRepository itemRepository;
+    private final SqlItemSearcher sqlItemSearcher;
+    private final boolean postgres;
+
+    public FullTextItemSearcher(ItemRepository itemRepository, SqlItemSearcher sqlItemSearcher,
+                                DataSource dataSource) {
+        this.itemRepository = itemRepository;
+        this.sqlItemSearcher = sqlItemSearcher;
+        this.postgres = isPostgres(dataSource);
+        if (!postgres) {
+            log.warn("Полнотекстовый поиск доступен только в PostgreSQL, используется поиск через like");
+        }
+    }
+
+    @Override
+    public List<Item> searchAvailable(String text, Pageable pageable) {
+        if (!postgres) {
+            return sqlItemSearcher.searchAvailable(text, pageable);
+        }
+
+        String prefixQuery = toTsQuery(text, true);
+        if (prefixQuery.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.fullTextSearchAvailableItems(prefixQuery, toTsQuery(text, false), pageable);
+    }
+
+    /**
+     * Запрос для to_tsquery: слова из букв и цифр через «и», при prefix — каждое как префикс.
+     * Остальные символы отбрасываются, поэтому синтаксис tsquery из пользовательского ввода не попадает.
+     */
+    public static String toTsQuery(String text, boolean prefix) {
+        List<String> terms = new ArrayList<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(prefix ? word + ":*" : word);
+            }
+        }
+        return String.join(" & ", terms);
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось определить тип базы данных", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по {@link ItemSearchIndex}. Индекс заполняется после старта приложения; пока он строится,
+ * запросы обслуживает {@link SqlItemSearcher}.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "shareit.item", name = "search-mode", havingValue = "index")
+public class IndexItemSearcher implements ItemSearcher {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final SqlItemSearcher sqlItemSearcher;
+    private final ItemSearchIndex index = new ItemSearchIndex();
+    private volatile boolean ready;
+
+    public IndexItemSearcher(ItemRepository itemRepository, SqlItemSearcher sqlItemSearcher) {
+        this.itemRepository = itemRepository;
+        this.sqlItemSearcher = sqlItemSearcher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.currentTimeMillis();
+        long lastId = 0;
+        List<ItemSearchView> batch;
+        do {
+            batch = itemRepository.findByIdGreaterThanOrderById(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (ItemSearchView item : batch) {
+                index.putIfAbsent(item.getId(), item.getName(), item.getDescription(), item.getIsAvailable());
+                lastId = item.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        ready = true;
+        log.info("Индекс поиска вещей построен: {} вещей за {} мс", index.size(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    @Override
+    public List<Item> searchAvailable(String text, Pageable pageable) {
+        if (!ready) {
+            return sqlItemSearcher.searchAvailable(text, pageable);
+        }
+
+        long[] ids = index.searchAvailable(text, pageable.getOffset(), pageable.getPageSize());
+        if (ids.length == 0) {
+            return List.of();
+        }
+
+        // findAllById не сохраняет порядок, восстанавливаем ранжирование индекса
+        Map<Long, Item> itemsById = itemRepository.findAllById(Arrays.stream(ids).boxed().toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(itemsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getIsAvailable());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index.put(id, name, description, available);
+            }
+        });
+    }
+}
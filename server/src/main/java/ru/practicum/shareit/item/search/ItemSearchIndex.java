@@ -0,0 +1,271 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс названий и описаний вещей с той же семантикой, что и like '%text%'
+ * по каждому из полей.
+ *
+ * <p>Запрос от трёх символов сужается пересечением списков триграмм, более короткий — объединением
+ * списков слов, в которые он входит. Кандидаты затем проверяются и ранжируются по исходному тексту,
+ * поэтому индекс отвечает так же, как SQL, но не читает все строки таблицы.
+ */
+public final class ItemSearchIndex {
+    private static final int NO_MATCH = -1;
+    private static final int RANK_SHIFT = 60;
+    private static final long ID_MASK = (1L << RANK_SHIFT) - 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, PostingList> trigramPostings = new HashMap<>();
+    private final Map<String, PostingList> tokenPostings = new HashMap<>();
+
+    /**
+     * Добавляет вещь или заменяет её предыдущую версию.
+     */
+    public void put(long id, String name, String description, boolean available) {
+        lock.writeLock().lock();
+        try {
+            putLocked(id, name, description, available);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет вещь, только если её ещё нет: начальная загрузка не должна затирать более свежие правки.
+     */
+    public void putIfAbsent(long id, String name, String description, boolean available) {
+        lock.writeLock().lock();
+        try {
+            if (!ordinalsById.containsKey(id)) {
+                putLocked(id, name, description, available);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id доступных вещей, в названии или описании которых встречается text, в порядке релевантности
+     * (см. {@link ItemSearcher#searchAvailable}), начиная с offset и не более limit.
+     */
+    public long[] searchAvailable(String text, long offset, int limit) {
+        String query = normalize(text);
+        if (query.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+
+        long[] keys;
+        int found = 0;
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(query);
+            keys = new long[candidates.length];
+            for (int ordinal : candidates) {
+                Document document = documents.get(ordinal);
+                int rank = document.available() ? rank(document, query) : NO_MATCH;
+                if (rank != NO_MATCH) {
+                    keys[found++] = ((long) rank << RANK_SHIFT) | document.id();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Ранг в старших битах: сортировка ключей упорядочивает по рангу, а внутри ранга по id
+        Arrays.sort(keys, 0, found);
+        int from = (int) Math.min(offset, found);
+        int to = (int) Math.min((long) from + limit, found);
+        long[] ids = new long[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = keys[i] & ID_MASK;
+        }
+        return ids;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(long id, String name, String description, boolean available) {
+        Document document = new Document(id, normalize(name), normalize(description), available);
+        Integer ordinal = ordinalsById.get(id);
+        if (ordinal == null) {
+            ordinal = documents.size();
+            ordinalsById.put(id, ordinal);
+            documents.add(document);
+        } else {
+            Document previous = documents.set(ordinal, document);
+            for (long trigram : trigrams(previous)) {
+                removePosting(trigramPostings, trigram, ordinal);
+            }
+            for (String token : tokens(previous)) {
+                removePosting(tokenPostings, token, ordinal);
+            }
+        }
+
+        for (long trigram : trigrams(document)) {
+            trigramPostings.computeIfAbsent(trigram, key -> new PostingList()).add(ordinal);
+        }
+        for (String token : tokens(document)) {
+            tokenPostings.computeIfAbsent(token, key -> new PostingList()).add(ordinal);
+        }
+    }
+
+    private int[] candidates(String query) {
+        if (query.length() >= 3) {
+            return intersectTrigrams(query);
+        }
+        if (isToken(query)) {
+            return unionTokensContaining(query);
+        }
+        // Короткий запрос с пробелом или знаком препинания встречается редко, проверяем все документы
+        int[] all = new int[documents.size()];
+        Arrays.setAll(all, ordinal -> ordinal);
+        return all;
+    }
+
+    private int[] intersectTrigrams(String query) {
+        List<PostingList> postings = new ArrayList<>();
+        for (long trigram : trigrams(query, new HashSet<>())) {
+            PostingList posting = trigramPostings.get(trigram);
+            if (posting == null) {
+                return new int[0];
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(PostingList::size));
+
+        PostingList smallest = postings.getFirst();
+        int[] result = new int[smallest.size()];
+        int found = 0;
+        for (int i = 0; i < smallest.size(); i++) {
+            int ordinal = smallest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < postings.size() && inAll; j++) {
+                inAll = postings.get(j).contains(ordinal);
+            }
+            if (inAll) {
+                result[found++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    private int[] unionTokensContaining(String query) {
+        int[] result = new int[0];
+        int found = 0;
+        for (Map.Entry<String, PostingList> entry : tokenPostings.entrySet()) {
+            if (!entry.getKey().contains(query)) {
+                continue;
+            }
+            PostingList posting = entry.getValue();
+            if (found + posting.size() > result.length) {
+                result = Arrays.copyOf(result, Math.max(result.length * 2, found + posting.size()));
+            }
+            for (int i = 0; i < posting.size(); i++) {
+                result[found++] = posting.get(i);
+            }
+        }
+        return Arrays.stream(result, 0, found).distinct().toArray();
+    }
+
+    private static int rank(Document document, String query) {
+        if (containsWord(document.name(), query)) {
+            return 0;
+        }
+        if (document.name().contains(query)) {
+            return 1;
+        }
+        if (containsWord(document.description(), query)) {
+            return 2;
+        }
+        return document.description().contains(query) ? 3 : NO_MATCH;
+    }
+
+    // Слово отделено пробелом или краем поля — так же, как в ItemRepository#searchAvailableItems
+    private static boolean containsWord(String text, String query) {
+        for (int from = text.indexOf(query); from >= 0; from = text.indexOf(query, from + 1)) {
+            int to = from + query.length();
+            boolean startsWord = from == 0 || text.charAt(from - 1) == ' ';
+            boolean endsWord = to == text.length() || text.charAt(to) == ' ';
+            if (startsWord && endsWord) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <K> void removePosting(Map<K, PostingList> postings, K key, int ordinal) {
+        PostingList posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<Long> trigrams(Document document) {
+        Set<Long> trigrams = new HashSet<>();
+        trigrams(document.name(), trigrams);
+        trigrams(document.description(), trigrams);
+        return trigrams;
+    }
+
+    // Три символа UTF-16 упаковываются в один long
+    private static Set<Long> trigrams(String text, Set<Long> trigrams) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static Set<String> tokens(Document document) {
+        Set<String> tokens = new HashSet<>();
+        tokens(document.name(), tokens);
+        tokens(document.description(), tokens);
+        return tokens;
+    }
+
+    private static void tokens(String text, Set<String> tokens) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private static boolean isToken(String text) {
+        return text.chars().allMatch(Character::isLetterOrDigit);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private record Document(long id, String name, String description, boolean available) {
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Способ поиска вещей для GET /items/search; выбирается свойством shareit.item.search-mode.
+ */
+public interface ItemSearcher {
+    /**
+     * Страница доступных вещей по запросу text без учёта регистра.
+     *
+     * <p>В режимах SQL и INDEX правило одно: text ищется как подстрока названия или описания, символы
+     * % и _ — обычные символы. Порядок: целым словом в названии, частью названия, целым словом в описании,
+     * частью описания, при равенстве — по id. Целое слово отделено пробелами или краем поля, поэтому
+     * оба режима отдают одинаковые страницы для одних и тех же from и size.
+     *
+     * <p>В режиме FULLTEXT запрос делится на слова из букв и цифр, и каждое ищется как начало слова
+     * (все слова должны найтись). Порядок: все слова целиком в названии, префиксами в названии, целиком
+     * в описании, остальное; внутри группы — по убыванию ts_rank, затем по id. Набор и порядок вещей
+     * поэтому могут отличаться от SQL и INDEX.
+     */
+    List<Item> searchAvailable(String text, Pageable pageable);
+
+    /**
+     * Вызывается в транзакции, сохранившей вещь, чтобы поиск увидел изменения после коммита.
+     */
+    default void onItemSaved(Item item) {
+    }
+}
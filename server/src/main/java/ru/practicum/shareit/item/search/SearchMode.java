@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.search;
+
+public enum SearchMode {
+    /**
+     * Запрос like по таблице items.
+     */
+    SQL,
+    /**
+     * Инвертированный индекс в памяти сервера, см. {@link IndexItemSearcher}.
+     */
+    INDEX,
+    /**
+     * Полнотекстовый поиск PostgreSQL, см. {@link FullTextItemSearcher}. В отличие от SQL и INDEX находит
+     * слова, начинающиеся с каждого слова запроса, а не любую подстроку: "дрел" найдёт "Дрель", "рель" — нет.
+     */
+    FULLTEXT
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.CommentMapper;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Заполняет комментарии вещей в ответах. {@link ru.practicum.shareit.item.dao.ItemMapper} их не копирует:
+ * обращение к ленивой коллекции Item.comments давало бы запрос на каждую вещь, поэтому каждый ответ с вещами
+ * получает комментарии здесь, для всех вещей сразу.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemCommentLoader {
+    private final CommentRepository commentRepository;
+    private final CommentMapper commentMapper;
+
+    /**
+     * Комментарии всех вещей одним запросом (двумя при ограничении числа), сгруппированные по вещи.
+     * limit — сколько последних комментариев оставить каждой вещи; null — все.
+     */
+    public void fill(List<ItemDto> itemDtos, @Nullable Integer limit) {
+        if (itemDtos.isEmpty()) {
+            return;
+        }
+
+        Set<Long> itemIds = itemDtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toSet());
+        List<Comment> comments;
+        if (limit == null) {
+            comments = commentRepository.findByItemIds(itemIds);
+        } else {
+            List<Long> commentIds = commentRepository.findRecentIdsByItemIds(itemIds, limit);
+            comments = commentIds.isEmpty() ? List.of() : commentRepository.findByIds(commentIds);
+        }
+
+        Map<Long, List<CommentDto>> commentsByItemId = comments.stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+
+        itemDtos.forEach(itemDto -> itemDto.setComments(commentsByItemId.getOrDefault(itemDto.getId(), List.of())));
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.ResourceVersions;
+import ru.practicum.shareit.item.ItemProperties;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Кэш собранных ответов GET /items/{itemId}, отдельно для владельца вещи и для остальных пользователей.
+ *
+ * <p>Запись сбрасывается после коммита изменения вещи, создания или подтверждения её бронирования и
+ * добавления комментария. Ответ владельцу дополнительно устаревает в момент начала следующего бронирования:
+ * с этого момента меняются и lastBooking, и nextBooking.
+ *
+ * <p>Вместе со сбросом увеличивается версия вещи в {@link ResourceVersions}: сначала удаляется запись,
+ * затем меняется версия, поэтому по новому ETag не отдаётся старый ответ.
+ *
+ * <p>Ответ, собранный из вещи, прочитанной до сброса, в кэш не попадает: версия записи берётся через
+ * {@link #generation} до чтения вещи и сверяется с текущей перед сохранением.
+ *
+ * <p>Закэшированный {@link ItemDto} общий для всех читателей и не должен изменяться.
+ */
+@Component
+public class ItemDetailsCache {
+    // Версии хранятся по полосам id: совпадение полосы у разных вещей лишь изредка отменяет сохранение ответа
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final ResourceVersions resourceVersions;
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Clock clock;
+    // Растёт при каждом сбросе вещей своей полосы
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    public ItemDetailsCache(ResourceVersions resourceVersions, ItemProperties properties,
+                            MeterRegistry meterRegistry, Clock clock) {
+        this.resourceVersions = resourceVersions;
+        this.clock = clock;
+        int maxEntries = properties.getDetailsCacheEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = meterRegistry.counter("shareit.item.details.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.item.details.lookups", "result", "miss");
+        this.evictions = meterRegistry.counter("shareit.item.details.evictions");
+        Gauge.builder("shareit.item.details.entries", this, ItemDetailsCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Версия записи вещи. Берётся до чтения вещи из базы и передаётся в {@link #get}: если вещь сброшена
+     * после этого, собранный из неё ответ не сохраняется.
+     */
+    public synchronized long generation(long itemId) {
+        return generations[stripe(itemId)];
+    }
+
+    public ItemDto get(long itemId, boolean ownerView, long loadGeneration, Supplier<ItemDto> loader) {
+        Key key = new Key(itemId, ownerView);
+        ItemDto cached = getFresh(key, LocalDateTime.now(clock));
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        // Сборка ответа идёт вне монитора кэша, чтобы запросы к базе не задерживали другие вещи
+        ItemDto itemDto = loader.get();
+        putIfGeneration(key, new Entry(itemDto, ownerView ? itemDto.getNextBooking() : null), loadGeneration);
+        return itemDto;
+    }
+
+    public void evictAfterCommit(long itemId) {
+        evictAfterCommit(List.of(itemId));
+    }
+
+    public void evictAfterCommit(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                itemIds.forEach(itemId -> evict(itemId));
+                resourceVersions.changed(itemIds.stream()
+                        .map(ResourceVersions::item)
+                        .toList());
+            }
+        });
+    }
+
+    private synchronized ItemDto getFresh(Key key, LocalDateTime now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() != null && !now.isBefore(entry.expiresAt())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.itemDto();
+    }
+
+    private synchronized void putIfGeneration(Key key, Entry entry, long expectedGeneration) {
+        if (generations[stripe(key.itemId())] == expectedGeneration) {
+            entries.put(key, entry);
+        }
+    }
+
+    private synchronized void evict(long itemId) {
+        generations[stripe(itemId)]++;
+        entries.remove(new Key(itemId, true));
+        entries.remove(new Key(itemId, false));
+    }
+
+    private static int stripe(long itemId) {
+        return Long.hashCode(itemId) & (GENERATION_STRIPES - 1);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private record Key(long itemId, boolean ownerView) {
+    }
+
+    private record Entry(ItemDto itemDto, LocalDateTime expiresAt) {
+    }
+}
@@ -14,5 +14,5 @@ public interface ItemService {
 
     ItemDto retrieve(long itemId, long userId);
 
-    List<ItemDto> search(String text);
+    List<ItemDto> search(String text, Integer from, Integer size);
 }
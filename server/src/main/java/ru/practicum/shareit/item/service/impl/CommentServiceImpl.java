@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dao.CommentMapper;
@@ -16,6 +17,7 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.CommentService;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dao.UserRepository;
 
@@ -31,6 +33,8 @@ public class CommentServiceImpl implements CommentService {
         private final UserRepository userRepository;
         private final BookingRepository bookingRepository;
         private final CommentMapper commentMapper;
+        private final ItemDetailsCache itemDetailsCache;
+        private final ResourceVersions resourceVersions;
 
         @Override
         @Transactional
@@ -55,6 +59,11 @@ public class CommentServiceImpl implements CommentService {
                 comment.setItem(item);
                 comment.setAuthor(author);
                 comment.setCreated(LocalDateTime.now());
+                itemDetailsCache.evictAfterCommit(itemId);
+                // Комментарии вещи-ответа видны и в списках запросов
+                if (item.getRequest() != null) {
+                        resourceVersions.changedAfterCommit(ResourceVersions.REQUESTS);
+                }
 
                 return commentMapper.toCommentDto(commentRepository.save(comment));
         }
@@ -2,29 +2,38 @@ package ru.practicum.shareit.item.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.ItemBookingStart;
+import ru.practicum.shareit.common.FromSizeRequest;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.item.dao.CommentMapper;
-import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.ItemProperties;
 import ru.practicum.shareit.item.dao.ItemMapper;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.item.service.ItemCommentLoader;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,10 +45,14 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
-    private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemMapper itemMapper;
-    private final CommentMapper commentMapper;
+    private final ItemProperties itemProperties;
+    private final ItemSearcher itemSearcher;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemCommentLoader itemCommentLoader;
+    private final ResourceVersions resourceVersions;
+    private final Clock clock;
 
     @Override
     @Transactional
@@ -58,9 +71,16 @@ public class ItemServiceImpl implements ItemService {
                 return new NotFoundException(String.format("Запрос с id=%s не найден", requestId));
             });
             item.setRequest(request);
+            resourceVersions.changedAfterCommit(ResourceVersions.REQUESTS);
         }
 
-        return itemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearcher.onItemSaved(savedItem);
+
+        // У новой вещи комментариев ещё нет
+        ItemDto itemDto = itemMapper.toItemDto(savedItem);
+        itemDto.setComments(List.of());
+        return itemDto;
     }
 
     @Override
@@ -90,8 +110,13 @@ public class ItemServiceImpl implements ItemService {
         if (itemToUpdate.getIsAvailable() != null) {
             existedItem.setIsAvailable(itemToUpdate.getIsAvailable());
         }
+        itemSearcher.onItemSaved(existedItem);
+        itemDetailsCache.evictAfterCommit(itemId);
+        resourceVersions.changedAfterCommit(changedByItemUpdate(existedItem));
 
-        return itemMapper.toItemDto(existedItem);
+        ItemDto itemDto = itemMapper.toItemDto(existedItem);
+        itemCommentLoader.fill(List.of(itemDto), null);
+        return itemDto;
     }
 
     @Override
@@ -102,82 +127,94 @@ public class ItemServiceImpl implements ItemService {
         }
 
         List<Item> items = itemRepository.findByOwnerId(userId);
-        LocalDateTime now = LocalDateTime.now();
-
-        return items.stream()
-                .map(item -> {
-                    ItemDto itemDto = itemMapper.toItemDto(item);
-
-                    // Если пользователь является владельцем вещи, добавляем даты бронирований
-                    if (item.getOwner().getId() == userId) {
-                        // Получаем последнее бронирование
-                        List<Booking> lastBookings = bookingRepository.findLastBookingByItemId(item.getId(), now);
-                        if (!lastBookings.isEmpty()) {
-                            itemDto.setLastBooking(lastBookings.get(0).getStart());
-                        }
-
-                        // Получаем следующее бронирование
-                        List<Booking> nextBookings = bookingRepository.findNextBookingByItemId(item.getId(), now);
-                        if (!nextBookings.isEmpty()) {
-                            itemDto.setNextBooking(nextBookings.get(0).getStart());
-                        }
-                    }
-
-                    // Добавляем комментарии
-                    List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(item.getId());
-                    itemDto.setComments(comments.stream()
-                            .map(commentMapper::toCommentDto)
-                            .collect(Collectors.toList()));
-
-                    return itemDto;
-                })
+        List<ItemDto> itemDtos = items.stream()
+                .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
+
+        // Все вещи списка принадлежат пользователю, поэтому даты бронирований нужны для каждой
+        fillBookingDates(itemDtos, LocalDateTime.now(clock));
+
+        itemCommentLoader.fill(itemDtos, itemProperties.getListCommentsLimit());
+
+        return itemDtos;
     }
 
     @Override
     public ItemDto retrieve(long itemId, long userId) {
+        // Версия до чтения вещи: ответ из вещи, изменённой после этого момента, не останется в кэше
+        long generation = itemDetailsCache.generation(itemId);
         Item item = itemRepository.findById(itemId).orElseThrow(() -> {
             log.error("Предмет с id={} не найден", itemId);
             return new NotFoundException(String.format("Предмет с id=%s не найден", itemId));
         });
+        boolean ownerView = item.getOwner().getId() == userId;
+
+        return itemDetailsCache.get(itemId, ownerView, generation, () -> toItemDetails(item, ownerView));
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Integer from, Integer size) {
+        Pageable page = FromSizeRequest.of(from, size, Sort.unsorted());
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        String formattedText = text.toLowerCase();
+
+        List<ItemDto> itemDtos = itemSearcher.searchAvailable(formattedText, page).stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+        itemCommentLoader.fill(itemDtos, null);
+        return itemDtos;
+    }
+
+    private ItemDto toItemDetails(Item item, boolean ownerView) {
         ItemDto itemDto = itemMapper.toItemDto(item);
 
         // Если пользователь является владельцем вещи, добавляем даты бронирований
-        if (item.getOwner().getId() == userId) {
-            LocalDateTime now = LocalDateTime.now();
-
-            // Получаем последнее бронирование
-            List<Booking> lastBookings = bookingRepository.findLastBookingByItemId(itemId, now);
-            if (!lastBookings.isEmpty()) {
-                itemDto.setLastBooking(lastBookings.get(0).getStart());
-            }
-
-            // Получаем следующее бронирование
-            List<Booking> nextBookings = bookingRepository.findNextBookingByItemId(itemId, now);
-            if (!nextBookings.isEmpty()) {
-                itemDto.setNextBooking(nextBookings.get(0).getStart());
-            }
+        if (ownerView) {
+            fillBookingDates(List.of(itemDto), LocalDateTime.now(clock));
         }
 
         // Добавляем комментарии
-        List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(itemId);
-        itemDto.setComments(comments.stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.toList()));
+        itemCommentLoader.fill(List.of(itemDto), null);
 
         return itemDto;
     }
 
-    @Override
-    public List<ItemDto> search(String text) {
-        if (text == null || text.isBlank()) {
-            return Collections.emptyList();
+    // Вещь встроена в бронирования владельца и арендаторов, а отвечающая на запрос вещь — в запросы
+    private List<String> changedByItemUpdate(Item item) {
+        List<String> keys = new ArrayList<>();
+        keys.add(ResourceVersions.bookings(item.getOwner().getId()));
+        bookingRepository.findBookerIdsByItemId(item.getId()).forEach(bookerId ->
+                keys.add(ResourceVersions.bookings(bookerId)));
+        if (item.getRequest() != null) {
+            keys.add(ResourceVersions.REQUESTS);
+        }
+        return keys;
+    }
+
+    // Даты последнего и следующего бронирования для всех вещей — двумя запросами вне зависимости от их числа
+    private void fillBookingDates(List<ItemDto> itemDtos, LocalDateTime now) {
+        if (itemDtos.isEmpty()) {
+            return;
         }
 
-        String formattedText = text.toLowerCase();
+        Set<Long> itemIds = itemDtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toSet());
+        Map<Long, LocalDateTime> lastBookings = toStartByItemId(bookingRepository.findLastBookingStarts(itemIds, now));
+        Map<Long, LocalDateTime> nextBookings = toStartByItemId(bookingRepository.findNextBookingStarts(itemIds, now));
 
-        return itemRepository.searchAvailableItems(formattedText).stream()
-                .map(itemMapper::toItemDto)
-                .collect(Collectors.toList());
+        itemDtos.forEach(itemDto -> {
+            itemDto.setLastBooking(lastBookings.get(itemDto.getId()));
+            itemDto.setNextBooking(nextBookings.get(itemDto.getId()));
+        });
+    }
+
+    private static Map<Long, LocalDateTime> toStartByItemId(List<ItemBookingStart> bookingStarts) {
+        return bookingStarts.stream()
+                .collect(Collectors.toMap(ItemBookingStart::getItemId, ItemBookingStart::getStart,
+                        (first, second) -> first));
     }
 }
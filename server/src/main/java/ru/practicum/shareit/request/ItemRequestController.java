@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -18,6 +20,7 @@ import static ru.practicum.shareit.Constant.OWNER_HEADER;
 @RequiredArgsConstructor
 public class ItemRequestController {
     private final ItemRequestService service;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,23 +31,34 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDto> getMyList(@RequestHeader(OWNER_HEADER) Long userId) {
+    public List<ItemRequestDto> getMyList(@RequestHeader(OWNER_HEADER) Long userId,
+                                          WebRequest webRequest) {
         log.info("GET /requests | userid={}", userId);
+        if (webRequest.checkNotModified(resourceVersions.etag(ResourceVersions.REQUESTS, userId))) {
+            return null;
+        }
         return service.getMyList(userId);
     }
 
     @GetMapping("/{requestId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ItemRequestDto retrieve(@PathVariable long requestId) {
+    public ItemRequestDto retrieve(@PathVariable long requestId,
+                                   WebRequest webRequest) {
         log.info("GET /requests/{}", requestId);
+        if (webRequest.checkNotModified(resourceVersions.etag(ResourceVersions.REQUESTS))) {
+            return null;
+        }
         return service.retrieve(requestId);
     }
 
     @GetMapping("/all")
-    @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDto> getCommonList() {
-        log.info("GET /requests/all");
-        return service.getCommonList();
+    public List<ItemRequestDto> getCommonList(@RequestHeader(value = OWNER_HEADER, required = false) Long userId,
+                                              @RequestParam(defaultValue = "0") Integer from,
+                                              @RequestParam(defaultValue = "10") Integer size,
+                                              WebRequest webRequest) {
+        log.info("GET /requests/all?from={}&size={} | userid={}", from, size, userId);
+        if (webRequest.checkNotModified(resourceVersions.etag(ResourceVersions.REQUESTS, userId))) {
+            return null;
+        }
+        return service.getCommonList(userId, from, size);
     }
 }
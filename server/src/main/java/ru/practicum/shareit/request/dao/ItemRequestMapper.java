@@ -2,12 +2,15 @@ package ru.practicum.shareit.request.dao;
 
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 @Mapper(componentModel = "spring")
 public interface ItemRequestMapper {
+    // Ответы на запрос заполняются сервисом одним запросом на всю страницу
+    @Mapping(target = "items", ignore = true)
     ItemRequestDto toItemRequestDto(ItemRequest itemRequest);
 
     ItemRequest toItemRequest(ItemRequestCreateDto itemRequestDto);
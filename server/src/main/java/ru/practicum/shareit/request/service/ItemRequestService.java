@@ -10,7 +10,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getMyList(long userId);
 
-    List<ItemRequestDto> getCommonList();
+    List<ItemRequestDto> getCommonList(Long userId, Integer from, Integer size);
 
     ItemRequestDto retrieve(long requestId);
 }
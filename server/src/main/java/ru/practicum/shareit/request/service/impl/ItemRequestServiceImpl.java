@@ -2,12 +2,18 @@ package ru.practicum.shareit.request.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.FromSizeRequest;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dao.ItemMapper;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemCommentLoader;
 import ru.practicum.shareit.request.dao.ItemRequestMapper;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
@@ -18,7 +24,11 @@ import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,7 +41,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
+    private final ItemCommentLoader itemCommentLoader;
     private final ItemRequestMapper itemRequestMapper;
+    private final ResourceVersions resourceVersions;
 
     @Override
     @Transactional
@@ -44,6 +56,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest itemRequest = itemRequestMapper.toItemRequest(requestData);
         itemRequest.setAuthor(author);
         itemRequest.setCreated(LocalDateTime.now());
+        resourceVersions.changedAfterCommit(ResourceVersions.REQUESTS);
 
         return itemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
     }
@@ -57,34 +70,19 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         List<ItemRequest> itemRequests = itemRequestRepository.findByAuthorIdOrderByCreatedDesc(userId);
 
-        return itemRequests.stream()
-                .map(itemRequest -> {
-                    ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
-
-                    List<Item> items = itemRepository.findByRequestId(itemRequestDto.getId());
-                    itemRequestDto.setItems(items.stream()
-                            .map(itemMapper::toItemDto)
-                            .collect(Collectors.toList()));
-                    return itemRequestDto;
-                })
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequests);
     }
 
     @Override
-    public List<ItemRequestDto> getCommonList() {
-        List<ItemRequest> itemRequests = itemRequestRepository.findAll();
+    public List<ItemRequestDto> getCommonList(Long userId, Integer from, Integer size) {
+        Pageable page = FromSizeRequest.of(from, size, Sort.by(Sort.Direction.DESC, "created", "id"));
 
-        return itemRequests.stream()
-                .map(itemRequest -> {
-                    ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
+        // Свои запросы пользователь видит в getMyList, поэтому исключаем их на стороне базы
+        List<ItemRequest> itemRequests = userId == null
+                ? itemRequestRepository.findBy(page)
+                : itemRequestRepository.findByAuthorIdNot(userId, page);
 
-                    List<Item> items = itemRepository.findByRequestId(itemRequestDto.getId());
-                    itemRequestDto.setItems(items.stream()
-                            .map(itemMapper::toItemDto)
-                            .collect(Collectors.toList()));
-                    return itemRequestDto;
-                })
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequests);
     }
 
     @Override
@@ -93,12 +91,36 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             log.error("Запрос с id={} не найден", requestId);
             return new NotFoundException(String.format("Запрос с id=%s не найден", requestId));
         });
-        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
 
-        List<Item> items = itemRepository.findByRequestId(itemRequestDto.getId());
-        itemRequestDto.setItems(items.stream()
+        return toItemRequestDtos(List.of(itemRequest)).getFirst();
+    }
+
+    // Вещи-ответы для всех запросов страницы загружаются одним запросом
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        List<Item> items = itemRepository.findByRequestIdIn(requestIds);
+        List<ItemDto> itemDtos = items.stream()
                 .map(itemMapper::toItemDto)
-                .collect(Collectors.toList()));
-        return itemRequestDto;
+                .collect(Collectors.toList());
+        itemCommentLoader.fill(itemDtos, null);
+        Map<Long, List<ItemDto>> itemsByRequestId = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            itemsByRequestId.computeIfAbsent(items.get(i).getRequest().getId(), requestId -> new ArrayList<>())
+                    .add(itemDtos.get(i));
+        }
+
+        return itemRequests.stream()
+                .map(itemRequest -> {
+                    ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
+                    itemRequestDto.setItems(itemsByRequestId.getOrDefault(itemRequest.getId(), List.of()));
+                    return itemRequestDto;
+                })
+                .collect(Collectors.toList());
     }
 }
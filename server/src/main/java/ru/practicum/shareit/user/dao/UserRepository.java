@@ -7,4 +7,10 @@ import ru.practicum.shareit.user.model.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
+
+    // Стандартный existsById выполняет запрос count мимо кэша второго уровня, а findById берёт пользователя из кэша
+    @Override
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
 }
\ No newline at end of file
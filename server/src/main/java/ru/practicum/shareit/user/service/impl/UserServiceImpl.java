@@ -4,8 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.DatabaseUniqueConstraintException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
 import ru.practicum.shareit.user.dao.UserMapper;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserCreateDto;
@@ -13,6 +17,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +29,10 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
     private final UserMapper mapper;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ResourceVersions resourceVersions;
 
     @Override
     @Transactional
@@ -60,6 +69,7 @@ public class UserServiceImpl implements UserService {
         if (userData.getEmail() != null && !userData.getEmail().isBlank()) {
             existedUser.setEmail(userData.getEmail());
         }
+        changedByUserUpdate(userId);
 
         return mapper.toUserDto(existedUser);
     }
@@ -89,5 +99,16 @@ public class UserServiceImpl implements UserService {
         }
 
         repository.deleteById(userId);
+        resourceVersions.changedAfterCommit(ResourceVersions.bookings(userId), ResourceVersions.REQUESTS);
+    }
+
+    // Пользователь встроен в свои бронирования, в бронирования владельцев взятых им вещей и в комментарии
+    private void changedByUserUpdate(long userId) {
+        List<String> keys = new ArrayList<>();
+        keys.add(ResourceVersions.bookings(userId));
+        bookingRepository.findItemOwnerIdsByBookerId(userId).forEach(ownerId ->
+                keys.add(ResourceVersions.bookings(ownerId)));
+        resourceVersions.changedAfterCommit(keys);
+        itemDetailsCache.evictAfterCommit(commentRepository.findItemIdsByAuthorId(userId));
     }
 }
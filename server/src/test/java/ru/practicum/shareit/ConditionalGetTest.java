@@ -0,0 +1,206 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.CommentService;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.Constant.OWNER_HEADER;
+import static ru.practicum.shareit.TestEntities.booking;
+import static ru.practicum.shareit.TestEntities.item;
+import static ru.practicum.shareit.TestEntities.user;
+
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    private static final int BOOKINGS_COUNT = 50;
+    private static final int POLLS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        item = itemRepository.save(item(owner, "Дрель"));
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            bookings.add(booking(item, booker, now.minusDays(2L * i + 2), now.minusDays(2L * i + 1), Status.APPROVED));
+        }
+        bookingRepository.saveAll(bookings);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedBookingsAreNotSentAgain() throws Exception {
+        String bookingsUrl = "/bookings?state=ALL&size=" + BOOKINGS_COUNT;
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        MvcResult first = mockMvc.perform(get(bookingsUrl).header(OWNER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        statistics.clear();
+        long fullBytes = 0;
+        long fullStart = System.nanoTime();
+        for (int i = 0; i < POLLS; i++) {
+            fullBytes += mockMvc.perform(get(bookingsUrl).header(OWNER_HEADER, booker.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray().length;
+        }
+        long fullNanos = System.nanoTime() - fullStart;
+        long fullStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long conditionalBytes = 0;
+        long conditionalStart = System.nanoTime();
+        for (int i = 0; i < POLLS; i++) {
+            conditionalBytes += mockMvc.perform(get(bookingsUrl)
+                            .header(OWNER_HEADER, booker.getId())
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andReturn().getResponse().getContentAsByteArray().length;
+        }
+        long conditionalNanos = System.nanoTime() - conditionalStart;
+        long conditionalStatements = statistics.getPrepareStatementCount();
+
+        log.info("{} опросов GET /bookings: без ETag {} байт, {} мс, {} запросов к базе; "
+                        + "с If-None-Match {} байт, {} мс, {} запросов к базе",
+                POLLS, fullBytes, fullNanos / 1_000_000, fullStatements,
+                conditionalBytes, conditionalNanos / 1_000_000, conditionalStatements);
+        assertEquals(0, conditionalBytes);
+        assertEquals(0, conditionalStatements);
+
+        UserDto rename = new UserDto();
+        rename.setName("renamed");
+        userService.update(rename, booker.getId());
+        mockMvc.perform(get(bookingsUrl)
+                        .header(OWNER_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void itemDetailsChangeTagWhenCommentAdded() throws Exception {
+        String etag = mockMvc.perform(get("/items/{itemId}", item.getId()).header(OWNER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(OWNER_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        String ownerEtag = mockMvc.perform(get("/items/{itemId}", item.getId()).header(OWNER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, ownerEtag);
+
+        CommentCreateDto comment = new CommentCreateDto();
+        comment.setText("Отличная вещь");
+        commentService.create(booker.getId(), item.getId(), comment);
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(OWNER_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requestsChangeTagWhenRequestCreated() throws Exception {
+        String etag = mockMvc.perform(get("/requests/all").header(OWNER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/requests/all")
+                        .header(OWNER_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        ItemRequestCreateDto request = new ItemRequestCreateDto();
+        request.setDescription("Нужна дрель");
+        itemRequestService.create(request, booker.getId());
+
+        mockMvc.perform(get("/requests/all")
+                        .header(OWNER_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Системные часы, которые тест может сдвинуть вперёд вместо ожидания.
+ */
+public class MutableClock extends Clock {
+    private final Clock system = Clock.systemDefaultZone();
+    private volatile Duration offset = Duration.ZERO;
+
+    public void advance(Duration duration) {
+        offset = offset.plus(duration);
+    }
+
+    public void reset() {
+        offset = Duration.ZERO;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return system.getZone();
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return system.instant().plus(offset);
+    }
+}
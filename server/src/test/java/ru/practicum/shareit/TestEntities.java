@@ -0,0 +1,61 @@
+package ru.practicum.shareit;
+
+import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Несохранённые сущности для тестов сервисов.
+ */
+public final class TestEntities {
+    private TestEntities() {
+    }
+
+    public static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+
+    public static Item item(User owner, String name) {
+        return item(owner, name, name + " для дома");
+    }
+
+    public static Item item(User owner, String name, String description) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setIsAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
+    public static Item item(User owner, String name, ItemRequest request) {
+        Item item = item(owner, name);
+        item.setRequest(request);
+        return item;
+    }
+
+    public static ItemRequest request(User author, String description, LocalDateTime created) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setAuthor(author);
+        itemRequest.setDescription(description);
+        itemRequest.setCreated(created);
+        return itemRequest;
+    }
+
+    public static Booking booking(Item item, User booker, LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return booking;
+    }
+}
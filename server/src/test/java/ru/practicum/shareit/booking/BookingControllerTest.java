@@ -7,11 +7,15 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -27,8 +31,10 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import static ru.practicum.shareit.Constant.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
+@Import(ResourceVersions.class)
 @WebMvcTest(BookingController.class)
 class BookingControllerTest {
 
@@ -126,6 +132,28 @@ class BookingControllerTest {
                                 .andExpect(status().isNotFound());
         }
 
+        @Test
+        void createAllReturnsResultPerEntry() throws Exception {
+                BookingBatchResultDto created = new BookingBatchResultDto();
+                created.setStatus(201);
+                created.setBooking(bookingDto);
+                BookingBatchResultDto notFound = new BookingBatchResultDto();
+                notFound.setStatus(404);
+                notFound.setError("Вещь с id=999 не найдена");
+                Mockito.when(bookingService.createAll(anyLong(), anyList())).thenReturn(List.of(created, notFound));
+
+                mockMvc.perform(post("/bookings/batch")
+                                .header(OWNER_HEADER, "2")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                List.of(validBookingCreateDto, validBookingCreateDto))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].status", is(201)))
+                                .andExpect(jsonPath("$[0].booking.id", is(1)))
+                                .andExpect(jsonPath("$[1].status", is(404)))
+                                .andExpect(jsonPath("$[1].error", is("Вещь с id=999 не найдена")));
+        }
+
         @Test
         void approveBookingValidDataReturnsApprovedBooking() throws Exception {
                 Mockito.when(bookingService.approve(anyLong(), anyLong(), anyBoolean())).thenReturn(approvedBookingDto);
@@ -209,6 +237,24 @@ class BookingControllerTest {
                                 .andExpect(jsonPath("$[0].booker.id", is(2)));
         }
 
+        @Test
+        void getAllByUserWithCursorReturnsNextCursorHeader() throws Exception {
+                BookingPageDto page = new BookingPageDto();
+                page.setBookings(List.of(bookingDto));
+                page.setNextCursor("next");
+                Mockito.when(bookingService.getAllByUserAfter(anyLong(), anyString(), anyString(), anyInt()))
+                                .thenReturn(page);
+
+                mockMvc.perform(get("/bookings")
+                                .header(OWNER_HEADER, "2")
+                                .param("state", "ALL")
+                                .param("cursor", ""))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(NEXT_CURSOR_HEADER, "next"))
+                                .andExpect(jsonPath("$.length()", is(1)))
+                                .andExpect(jsonPath("$[0].id", is(1)));
+        }
+
         @Test
         void getAllByUserMissingUserIdHeaderReturnsInternalServerError() throws Exception {
                 mockMvc.perform(get("/bookings")
@@ -0,0 +1,408 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.SqlStatementRecorder;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.TestEntities.booking;
+import static ru.practicum.shareit.TestEntities.item;
+import static ru.practicum.shareit.TestEntities.user;
+
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.SqlStatementRecorder")
+class BookingServiceImplTest {
+    private static final int BOOKINGS_COUNT = 25;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ItemAvailabilityIndex availabilityIndex;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        Item item = itemRepository.save(item(owner, "Дрель"));
+
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS_COUNT);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            bookings.add(booking(item, booker, start.plusDays(i), start.plusDays(i).plusHours(1), Status.APPROVED));
+        }
+        bookingRepository.saveAll(bookings);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getAllByUserFetchesOnlyRequestedPage() {
+        List<BookingDto> page = bookingService.getAllByUser(booker.getId(), "ALL", 20, 10);
+
+        assertEquals(BOOKINGS_COUNT - 20, page.size());
+        assertEquals(BOOKINGS_COUNT - 20, bookingLoadCount());
+    }
+
+    @Test
+    void getAllByOwnerFetchesOnlyRequestedPage() {
+        List<BookingDto> page = bookingService.getAllByOwner(owner.getId(), "ALL", 3, 7);
+
+        assertEquals(7, page.size());
+        assertEquals(7, bookingLoadCount());
+    }
+
+    @Test
+    void getAllByUserFiltersByState() {
+        assertEquals(BOOKINGS_COUNT, bookingService.getAllByUser(booker.getId(), "PAST", 0, 100).size());
+        assertEquals(0, bookingService.getAllByUser(booker.getId(), "CURRENT", 0, 100).size());
+        assertEquals(0, bookingService.getAllByUser(booker.getId(), "FUTURE", 0, 100).size());
+        assertEquals(0, bookingService.getAllByOwner(owner.getId(), "WAITING", 0, 100).size());
+        assertEquals(0, bookingService.getAllByOwner(owner.getId(), "REJECTED", 0, 100).size());
+        assertThrows(ValidationException.class,
+                () -> bookingService.getAllByOwner(owner.getId(), "UNKNOWN", 0, 100));
+    }
+
+    @Test
+    void getAllByOwnerFiltersByOwnerInsteadOfItemIdList() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            items.add(item(owner, "Дрель"));
+        }
+        itemRepository.saveAll(items);
+        SqlStatementRecorder.clear();
+
+        List<BookingDto> page = bookingService.getAllByOwner(owner.getId(), "ALL", 0, 10);
+
+        assertEquals(10, page.size());
+        List<String> statements = SqlStatementRecorder.statements().stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " "))
+                .toList();
+        // Вещи владельца не выбираются отдельно, а id вещей не передаются в запрос бронирований списком
+        assertTrue(statements.stream().noneMatch(sql -> sql.contains(" from items ")));
+        List<String> bookingQueries = statements.stream()
+                .filter(sql -> sql.contains(" from bookings "))
+                .toList();
+        assertEquals(1, bookingQueries.size());
+        String bookingQuery = bookingQueries.get(0);
+        assertFalse(bookingQuery.contains(" in ("));
+        assertTrue(bookingQuery.matches(".* join items \\w+ on .* where \\w+\\.owner_id=\\? .*"), bookingQuery);
+    }
+
+    @Test
+    void getAllByUserAfterRejectsTooLargePage() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.getAllByUserAfter(booker.getId(), "ALL", "", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void getAllByUserAfterWalksAllPagesByCursor() {
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime previousStart = LocalDateTime.MAX;
+        String cursor = "";
+        int pages = 0;
+
+        do {
+            statistics.clear();
+            BookingPageDto page = bookingService.getAllByUserAfter(booker.getId(), "ALL", cursor, 10);
+            // страница плюс одна запись для определения наличия следующей, независимо от глубины
+            assertTrue(bookingLoadCount() <= 11);
+
+            for (BookingDto booking : page.getBookings()) {
+                assertTrue(seen.add(booking.getId()));
+                assertTrue(booking.getStart().isBefore(previousStart));
+                previousStart = booking.getStart();
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(BOOKINGS_COUNT, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void getAllByOwnerAfterReturnsNoCursorOnLastPage() {
+        BookingPageDto page = bookingService.getAllByOwnerAfter(owner.getId(), "PAST", null, BOOKINGS_COUNT);
+
+        assertEquals(BOOKINGS_COUNT, page.getBookings().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void createRejectsIntervalOverlappingApprovedBooking() {
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        bookingRepository.save(booking(item, booker, start, start.plusHours(1), Status.APPROVED));
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.create(booker.getId(), bookingCreateDto(item, start.plusMinutes(30), 1)));
+        assertEquals(Status.WAITING,
+                bookingService.create(booker.getId(), bookingCreateDto(item, start.plusHours(1), 1)).getStatus());
+    }
+
+    @Test
+    void createAllReturnsResultPerEntryInRequestOrder() {
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        Item unavailable = item(owner, "Дрель");
+        unavailable.setIsAvailable(false);
+        itemRepository.save(unavailable);
+        Item ownItem = itemRepository.save(item(booker, "Дрель"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        bookingRepository.save(booking(item, booker, start, start.plusHours(1), Status.APPROVED));
+
+        BookingCreateDto unknownItem = bookingCreateDto(item, start, 1);
+        unknownItem.setItemId(-1L);
+        BookingCreateDto endBeforeStart = bookingCreateDto(item, start.plusDays(1), -1);
+
+        List<BookingBatchResultDto> results = bookingService.createAll(booker.getId(), List.of(
+                bookingCreateDto(item, start.plusHours(1), 1),
+                bookingCreateDto(item, start.plusMinutes(30), 1),
+                unknownItem,
+                bookingCreateDto(ownItem, start, 1),
+                bookingCreateDto(unavailable, start, 1),
+                endBeforeStart,
+                bookingCreateDto(item, start.plusHours(2), 1)));
+
+        assertEquals(List.of(201, 409, 404, 404, 400, 400, 201),
+                results.stream().map(BookingBatchResultDto::getStatus).toList());
+        assertEquals(Status.WAITING, results.getFirst().getBooking().getStatus());
+        assertEquals(start.plusHours(2), results.getLast().getBooking().getStart());
+        assertNull(results.get(1).getBooking());
+        assertTrue(bookingRepository.existsById(results.getFirst().getBooking().getId()));
+        assertTrue(bookingRepository.existsById(results.getLast().getBooking().getId()));
+    }
+
+    @Test
+    void createAllQueryCountDoesNotDependOnBatchSize() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(item(owner, "Дрель"));
+        }
+        itemRepository.saveAll(items);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingCreateDto> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(bookingCreateDto(items.get(i % items.size()), start.plusDays(i), 1));
+        }
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        List<BookingBatchResultDto> results = bookingService.createAll(booker.getId(), batch);
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == 201));
+        // Пользователь, вещи, периоды занятости, две выборки из последовательности и INSERT пачками
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+                "Выполнено запросов: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void availabilityIndexServesRepeatedChecksAndSeesNewApprovals() {
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Counter hits = meterRegistry.counter("shareit.booking.availability.lookups", "result", "hit");
+        Counter misses = meterRegistry.counter("shareit.booking.availability.lookups", "result", "miss");
+
+        double missesBefore = misses.count();
+        BookingDto first = bookingService.create(booker.getId(), bookingCreateDto(item, start, 2));
+        assertEquals(missesBefore + 1, misses.count());
+
+        bookingService.approve(owner.getId(), first.getId(), true);
+        double hitsBefore = hits.count();
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.create(booker.getId(), bookingCreateDto(item, start.plusHours(1), 2)));
+        bookingService.create(booker.getId(), bookingCreateDto(item, start.plusHours(2), 1));
+        assertEquals(hitsBefore + 2, hits.count());
+        assertEquals(missesBefore + 1, misses.count());
+    }
+
+    @Test
+    void concurrentApprovalsNeverDoubleBookItem() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 25;
+        int slots = 20;
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    // Соседние слоты пересекаются на полчаса, так что конфликтуют и разные интервалы
+                    int slot = (thread * attemptsPerThread + i) % slots;
+                    try {
+                        BookingDto created = bookingService.create(booker.getId(),
+                                bookingCreateDto(item, start.plusMinutes(30L * slot), 1));
+                        bookingService.approve(owner.getId(), created.getId(), true);
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        executor.shutdown();
+
+        int attempts = threads * attemptsPerThread;
+        log.info("Бронирование одной вещи из {} потоков: {} попыток, {} конфликтов, {} оп/с",
+                threads, attempts, conflicts.get(), Math.round(attempts / seconds));
+
+        List<Booking> approved = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .filter(booking -> booking.getStatus() == Status.APPROVED)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .toList();
+        assertFalse(approved.isEmpty());
+        for (int i = 1; i < approved.size(); i++) {
+            assertFalse(approved.get(i).getStart().isBefore(approved.get(i - 1).getEnd()),
+                    "Пересекающиеся подтверждённые бронирования: " + approved.get(i - 1).getId()
+                            + " и " + approved.get(i).getId());
+        }
+    }
+
+    @Test
+    void concurrentApproveAndRejectKeepAvailabilityIndexInStepWithDatabase() throws Exception {
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        for (int round = 0; round < 20; round++) {
+            LocalDateTime slotStart = start.plusHours(2L * round);
+            BookingDto created = bookingService.create(booker.getId(), bookingCreateDto(item, slotStart, 1));
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<Boolean>> decisions = new ArrayList<>();
+            for (boolean approved : new boolean[]{true, false}) {
+                decisions.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        bookingService.approve(owner.getId(), created.getId(), approved);
+                        return true;
+                    } catch (ValidationException e) {
+                        return false;
+                    }
+                }));
+            }
+            startGate.countDown();
+            int applied = 0;
+            for (Future<Boolean> decision : decisions) {
+                applied += decision.get(1, TimeUnit.MINUTES) ? 1 : 0;
+            }
+
+            Status status = bookingRepository.findStatusById(created.getId());
+            assertEquals(1, applied, "Раунд " + round);
+            assertEquals(status != Status.APPROVED,
+                    availabilityIndex.isFree(item.getId(), slotStart, slotStart.plusHours(1)),
+                    "Раунд " + round + ", статус " + status);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void secondApprovalReportsStatusAlreadySet() {
+        Item item = itemRepository.save(item(owner, "Дрель"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto created = bookingService.create(booker.getId(), bookingCreateDto(item, start, 1));
+
+        assertEquals(Status.APPROVED, bookingService.approve(owner.getId(), created.getId(), true).getStatus());
+
+        assertThrows(ValidationException.class, () -> bookingService.approve(owner.getId(), created.getId(), true));
+        assertThrows(ValidationException.class, () -> bookingService.approve(owner.getId(), created.getId(), false));
+        assertEquals(Status.APPROVED, bookingRepository.findStatusById(created.getId()));
+    }
+
+    private long bookingLoadCount() {
+        return statistics.getEntityStatistics(Booking.class.getName()).getLoadCount();
+    }
+
+    private static BookingCreateDto bookingCreateDto(Item item, LocalDateTime start, long hours) {
+        BookingCreateDto bookingCreateDto = new BookingCreateDto();
+        bookingCreateDto.setItemId(item.getId());
+        bookingCreateDto.setStart(start);
+        bookingCreateDto.setEnd(start.plusHours(hours));
+        return bookingCreateDto;
+    }
+}
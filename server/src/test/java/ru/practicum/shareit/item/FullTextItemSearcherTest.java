@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.FullTextItemSearcher;
+import ru.practicum.shareit.item.search.SqlItemSearcher;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class FullTextItemSearcherTest {
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+
+    private final ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+    private final SqlItemSearcher sqlItemSearcher = Mockito.mock(SqlItemSearcher.class);
+
+    @Test
+    void toTsQueryDropsTsQuerySyntax() {
+        assertEquals("ударная:* & дрел:*", FullTextItemSearcher.toTsQuery("Ударная ДРЕЛ", true));
+        assertEquals("drill & 18v", FullTextItemSearcher.toTsQuery("  drill&!(18V):* ", false));
+        assertEquals("", FullTextItemSearcher.toTsQuery("&|!", true));
+    }
+
+    @Test
+    void searchesByTsQueryOnPostgres() throws SQLException {
+        Item item = new Item();
+        Mockito.when(itemRepository.fullTextSearchAvailableItems("дрел:*", "дрел", PAGE)).thenReturn(List.of(item));
+
+        FullTextItemSearcher searcher = new FullTextItemSearcher(itemRepository, sqlItemSearcher,
+                dataSource("PostgreSQL"));
+
+        assertEquals(List.of(item), searcher.searchAvailable("дрел", PAGE));
+        assertEquals(List.of(), searcher.searchAvailable("!!", PAGE));
+        Mockito.verifyNoInteractions(sqlItemSearcher);
+    }
+
+    @Test
+    void fallsBackToLikeOnOtherDatabases() throws SQLException {
+        FullTextItemSearcher searcher = new FullTextItemSearcher(itemRepository, sqlItemSearcher, dataSource("H2"));
+
+        searcher.searchAvailable("дрел", PAGE);
+
+        Mockito.verify(sqlItemSearcher).searchAvailable("дрел", PAGE);
+        Mockito.verify(itemRepository, Mockito.never()).fullTextSearchAvailableItems(anyString(), anyString(), any());
+    }
+
+    private static DataSource dataSource(String productName) throws SQLException {
+        DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        Mockito.when(metaData.getDatabaseProductName()).thenReturn(productName);
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
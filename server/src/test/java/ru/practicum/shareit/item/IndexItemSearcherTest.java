@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.IndexItemSearcher;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static ru.practicum.shareit.TestEntities.user;
+
+@SpringBootTest(properties = {
+        "shareit.item.search-mode=index",
+        "spring.datasource.url=jdbc:h2:mem:shareit-search",
+        "spring.jpa.properties.hibernate.cache.region_prefix=search"
+})
+class IndexItemSearcherTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearcher itemSearcher;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(user("owner"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void searchSeesCreatedAndUpdatedItems() {
+        assertInstanceOf(IndexItemSearcher.class, itemSearcher);
+
+        ItemDto drill = itemService.create(itemCreateDto("Дрель", "Ударная дрель"), owner.getId());
+        itemService.create(itemCreateDto("Пила", "Ручная пила"), owner.getId());
+        assertEquals(List.of("Дрель"), names(itemService.search("УДАРН", 0, 10)));
+
+        ItemDto update = new ItemDto();
+        update.setDescription("Аккумуляторная дрель");
+        update.setAvailable(false);
+        itemService.update(update, drill.getId(), owner.getId());
+
+        assertEquals(List.of(), names(itemService.search("ударн", 0, 10)));
+        assertEquals(List.of(), names(itemService.search("аккумулятор", 0, 10)));
+        assertEquals(List.of("Пила"), names(itemService.search("пил", 0, 10)));
+    }
+
+    private static List<String> names(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static ItemCreateDto itemCreateDto(String name, String description) {
+        ItemCreateDto itemCreateDto = new ItemCreateDto();
+        itemCreateDto.setName(name);
+        itemCreateDto.setDescription(description);
+        itemCreateDto.setAvailable(true);
+        return itemCreateDto;
+    }
+}
@@ -7,28 +7,36 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.importing.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.service.CommentService;
 
+import java.io.InputStream;
 import java.util.List;
 import java.time.LocalDateTime;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
+@Import(ResourceVersions.class)
 @WebMvcTest(ItemController.class)
 class ItemControllerTest {
 
@@ -44,6 +52,9 @@ class ItemControllerTest {
         @MockBean
         private CommentService commentService;
 
+        @MockBean
+        private ItemImportService itemImportService;
+
         private ItemCreateDto validItemCreateDto;
         private ItemCreateDto invalidItemCreateDto;
         private ItemDto itemDto;
@@ -121,6 +132,27 @@ class ItemControllerTest {
                                 .andExpect(jsonPath("$.comments").isArray());
         }
 
+        @Test
+        void importItemsNdjsonReturnsResult() throws Exception {
+                ItemImportResultDto result = new ItemImportResultDto();
+                result.setRows(2);
+                result.setImported(1);
+                result.setFailed(1);
+                result.getErrors().add(new ItemImportErrorDto(2, "Некорректный JSON"));
+                Mockito.when(itemImportService.importItems(eq(1L), any(MediaType.class), any(InputStream.class)))
+                                .thenReturn(result);
+
+                mockMvc.perform(post("/items/import")
+                                .header(OWNER_HEADER, "1")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"name\":\"Item\",\"description\":\"Description\",\"available\":true}\n{"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.rows", is(2)))
+                                .andExpect(jsonPath("$.imported", is(1)))
+                                .andExpect(jsonPath("$.failed", is(1)))
+                                .andExpect(jsonPath("$.errors[0].line", is(2)));
+        }
+
         @Test
         void createItemMissingUserIdHeaderReturnsInternalError() throws Exception {
                 mockMvc.perform(post("/items")
@@ -207,7 +239,7 @@ class ItemControllerTest {
 
         @Test
         void searchItemsValidTextReturnsItems() throws Exception {
-                Mockito.when(itemService.search("test")).thenReturn(List.of(searchItemDto));
+                Mockito.when(itemService.search("test", 0, 10)).thenReturn(List.of(searchItemDto));
 
                 mockMvc.perform(get("/items/search")
                                 .param("text", "test"))
@@ -218,7 +250,7 @@ class ItemControllerTest {
 
         @Test
         void searchItemsEmptyTextReturnsEmptyList() throws Exception {
-                Mockito.when(itemService.search("")).thenReturn(List.of());
+                Mockito.when(itemService.search("", 0, 10)).thenReturn(List.of());
 
                 mockMvc.perform(get("/items/search")
                                 .param("text", ""))
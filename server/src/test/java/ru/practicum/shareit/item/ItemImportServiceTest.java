@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.importing.ItemImportService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.TestEntities.user;
+
+@SpringBootTest(properties = {
+        "shareit.item.import-batch-size=2",
+        "spring.datasource.url=jdbc:h2:mem:shareit-import",
+        "spring.jpa.properties.hibernate.cache.region_prefix=import"
+})
+class ItemImportServiceTest {
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ItemImportService importService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private ItemRequest request;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(user("owner"));
+
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription("Нужна пила");
+        itemRequest.setAuthor(owner);
+        itemRequest.setCreated(LocalDateTime.now());
+        request = itemRequestRepository.save(itemRequest);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importNdjsonSavesValidRowsAndReportsInvalidOnes() throws IOException {
+        String body = String.join("\n",
+                "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}",
+                "",
+                "{\"name\":\"Пила\"",
+                "{\"name\":\"Пила\",\"description\":\"Ручная\",\"available\":true,\"requestId\":"
+                        + request.getId() + "}",
+                "[1]",
+                "{\"name\":\"Лестница\",\"description\":\"Стремянка\"}",
+                "{\"id\":5,\"ownerId\":999,\"name\":\"Молоток\",\"description\":\"Слесарный\",\"available\":false}");
+
+        ItemImportResultDto result = importService.importItems(owner.getId(), MediaType.APPLICATION_NDJSON,
+                stream(body));
+
+        assertEquals(6, result.getRows());
+        assertEquals(3, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3L, 5L, 6L), lines(result));
+        assertTrue(result.getErrors().get(2).getError().contains("available"));
+
+        List<Item> items = savedItems();
+        assertEquals(List.of("Дрель", "Пила", "Молоток"), items.stream().map(Item::getName).toList());
+        assertTrue(items.stream().allMatch(item -> item.getOwner().getId().equals(owner.getId())));
+        assertEquals(request.getId(), items.get(1).getRequest().getId());
+        assertNull(items.get(0).getRequest());
+    }
+
+    @Test
+    void importCsvReadsQuotedValuesAndNumbersMultilineRecordsByFirstLine() throws IOException {
+        String body = """
+                Name,description,AVAILABLE,requestId
+                Дрель,"Ударная, с кейсом",true,
+                "Пила","Ручная
+                пила", TRUE ,%d
+                ,Без названия,true,
+                Шуруповёрт,Аккумуляторный,yes,
+                Лестница,Стремянка,false,999999
+                """.formatted(request.getId());
+
+        ItemImportResultDto result = importService.importItems(owner.getId(), CSV, stream(body));
+
+        assertEquals(5, result.getRows());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(5L, 6L, 7L), lines(result));
+        assertEquals("Запрос с id=999999 не найден", result.getErrors().get(2).getError());
+
+        List<Item> items = savedItems();
+        assertEquals(List.of("Ударная, с кейсом", "Ручная\nпила"),
+                items.stream().map(Item::getDescription).toList());
+        assertEquals(request.getId(), items.get(1).getRequest().getId());
+    }
+
+    @Test
+    void importCsvWithoutRequiredColumnFails() {
+        assertThrows(ValidationException.class,
+                () -> importService.importItems(owner.getId(), CSV, stream("name,description\nДрель,Ударная\n")));
+    }
+
+    @Test
+    void importForUnknownUserFails() {
+        assertThrows(NotFoundException.class,
+                () -> importService.importItems(owner.getId() + 1000, CSV, stream("name,description,available\n")));
+    }
+
+    private List<Item> savedItems() {
+        return itemRepository.findAll().stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> lines(ItemImportResultDto result) {
+        return result.getErrors().stream()
+                .map(ItemImportErrorDto::getLine)
+                .toList();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
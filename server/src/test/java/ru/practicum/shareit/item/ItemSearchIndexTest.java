@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@Slf4j
+class ItemSearchIndexTest {
+    private static final String[] WORDS = {"дрель", "пила", "молоток", "отвёртка", "лестница", "Drill", "saw",
+            "аккумуляторная", "ручная", "для", "дома", "сада", "ремонта", "мощная", "лёгкая", "ударная"};
+
+    @Test
+    void searchMatchesLikeOnEitherField() {
+        List<Doc> docs = corpus(new Random(42), 5_000);
+        ItemSearchIndex index = index(docs);
+
+        for (String query : List.of("дрель", "ДРЕЛЬ", "ль", "а", "dr", "ill", "ная для", "a d", "я д", "ремонтадома",
+                "лестница сада", "нет такого", " ")) {
+            assertArrayEquals(scan(docs, query), index.searchAvailable(query, 0, docs.size()),
+                    "Запрос '" + query + "'");
+        }
+    }
+
+    @Test
+    void searchRanksNameBeforeDescriptionAndWordBeforeSubstring() {
+        ItemSearchIndex index = new ItemSearchIndex();
+        index.put(1, "Отвёртка", "дрельный привод", true);
+        index.put(2, "Набор", "ударная дрель", true);
+        index.put(3, "Дрелька", "маленькая", true);
+        index.put(4, "Дрель", "обычная", true);
+        index.put(5, "Дрель", "запасная", true);
+
+        assertArrayEquals(new long[]{4, 5, 3, 2, 1}, index.searchAvailable("дрель", 0, 10));
+        assertArrayEquals(new long[]{3, 2}, index.searchAvailable("дрель", 2, 2));
+        assertArrayEquals(new long[0], index.searchAvailable("дрель", 5, 2));
+    }
+
+    @Test
+    void putReplacesPreviousVersion() {
+        ItemSearchIndex index = new ItemSearchIndex();
+        index.put(1, "Дрель", "Ударная", true);
+        index.put(2, "Пила", "Ручная", true);
+
+        index.put(1, "Молоток", "Тяжёлый", true);
+        index.put(2, "Пила", "Ручная", false);
+        index.putIfAbsent(1, "Дрель", "Ударная", true);
+
+        assertArrayEquals(new long[0], index.searchAvailable("дрель", 0, 10));
+        assertArrayEquals(new long[0], index.searchAvailable("пила", 0, 10));
+        assertArrayEquals(new long[]{1}, index.searchAvailable("тяж", 0, 10));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    void benchmarkIndexAgainstFullScan() {
+        List<Doc> docs = corpus(new Random(7), 1_000_000);
+        long startedAt = System.nanoTime();
+        ItemSearchIndex index = index(docs);
+        log.info("Индекс на {} вещей построен за {} мс", docs.size(), (System.nanoTime() - startedAt) / 1_000_000);
+
+        for (String query : List.of("отвёртка", "мощная дрель", "ль", "ручная пила для сада")) {
+            long scanNanos = measure(() -> scan(docs, query));
+            long indexNanos = measure(() -> index.searchAvailable(query, 0, 20));
+            log.info("'{}': полный просмотр {} мкс, индекс {} мкс", query, scanNanos / 1_000, indexNanos / 1_000);
+        }
+    }
+
+    private static long measure(Runnable search) {
+        for (int i = 0; i < 3; i++) {
+            search.run();
+        }
+        int runs = 10;
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            search.run();
+        }
+        return (System.nanoTime() - startedAt) / runs;
+    }
+
+    // То же, что делает like '%text%' по всем строкам таблицы, с тем же порядком, что и в индексе
+    private static long[] scan(List<Doc> docs, String query) {
+        String text = query.toLowerCase();
+        return docs.stream()
+                .filter(doc -> doc.available() && (doc.name().toLowerCase().contains(text)
+                        || doc.description().toLowerCase().contains(text)))
+                .sorted(Comparator.comparingInt((Doc doc) -> rank(doc, text)).thenComparingLong(Doc::id))
+                .mapToLong(Doc::id)
+                .toArray();
+    }
+
+    private static int rank(Doc doc, String text) {
+        String word = "(^| )" + Pattern.quote(text) + "( |$)";
+        if (Pattern.compile(word).matcher(doc.name().toLowerCase()).find()) {
+            return 0;
+        }
+        if (doc.name().toLowerCase().contains(text)) {
+            return 1;
+        }
+        return Pattern.compile(word).matcher(doc.description().toLowerCase()).find() ? 2 : 3;
+    }
+
+    private static ItemSearchIndex index(List<Doc> docs) {
+        ItemSearchIndex index = new ItemSearchIndex();
+        docs.forEach(doc -> index.put(doc.id(), doc.name(), doc.description(), doc.available()));
+        return index;
+    }
+
+    private static List<Doc> corpus(Random random, int size) {
+        List<Doc> docs = new ArrayList<>(size);
+        LongStream.rangeClosed(1, size).forEach(id -> docs.add(new Doc(id,
+                words(random, 1 + random.nextInt(2)),
+                words(random, 2 + random.nextInt(5)),
+                random.nextInt(10) != 0)));
+        return docs;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private record Doc(long id, String name, String description, boolean available) {
+    }
+}
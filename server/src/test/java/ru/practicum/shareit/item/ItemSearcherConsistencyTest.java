@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.common.FromSizeRequest;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.IndexItemSearcher;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.item.search.SqlItemSearcher;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.TestEntities.item;
+import static ru.practicum.shareit.TestEntities.user;
+
+// FULLTEXT работает только на PostgreSQL, на H2 он сам переходит на SqlItemSearcher
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-search-consistency",
+        "spring.jpa.properties.hibernate.cache.region_prefix=search-consistency"
+})
+class ItemSearcherConsistencyTest {
+    private static final List<String> QUERIES = List.of("дрель", "др", "рель", "ь", "дрель,", "мини-дрель",
+            "ударная дрель", "%", "100%", "_", "набор_", "\\", "ab", "нет такого");
+
+    @Autowired
+    private SqlItemSearcher sqlItemSearcher;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private IndexItemSearcher indexItemSearcher;
+
+    @BeforeEach
+    void init() {
+        User owner = userRepository.save(user("owner"));
+
+        save(owner, "Дрель", "обычная", true);
+        save(owner, "Дрель, ударная", "ударная дрель", true);
+        save(owner, "Мини-дрель", "для мелкого ремонта", true);
+        save(owner, "Отвёртка", "дрель-шуруповёрт", true);
+        save(owner, "Набор", "ударная дрель и биты", true);
+        save(owner, "Дрелька", "маленькая", true);
+        save(owner, "Дрель", "сломана", false);
+        save(owner, "Скатерть", "100% хлопок", true);
+        save(owner, "Набор_50", "50 предметов", true);
+        save(owner, "Путь C:\\ab", "AB тест", true);
+
+        indexItemSearcher = new IndexItemSearcher(itemRepository, sqlItemSearcher);
+        indexItemSearcher.build();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void sqlAndIndexReturnSamePages() {
+        for (String query : QUERIES) {
+            for (int size = 1; size <= 4; size++) {
+                for (int from = 0; from <= 10; from += size) {
+                    Pageable page = FromSizeRequest.of(from, size, Sort.unsorted());
+                    assertEquals(ids(sqlItemSearcher, query, page), ids(indexItemSearcher, query, page),
+                            "Запрос '" + query + "', from=" + from + ", size=" + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void bothRankByTheSameRule() {
+        List<String> expected = List.of("Дрель", "Дрель, ударная", "Мини-дрель", "Дрелька", "Набор", "Отвёртка");
+        Pageable page = FromSizeRequest.of(0, 10, Sort.unsorted());
+
+        assertEquals(expected, names(sqlItemSearcher.searchAvailable("дрель", page)));
+        assertEquals(expected, names(indexItemSearcher.searchAvailable("дрель", page)));
+        assertEquals(List.of("Скатерть"), names(sqlItemSearcher.searchAvailable("0%", page)));
+        assertEquals(List.of("Набор_50"), names(sqlItemSearcher.searchAvailable("р_", page)));
+    }
+
+    private void save(User owner, String name, String description, boolean available) {
+        Item item = item(owner, name, description);
+        item.setIsAvailable(available);
+        itemRepository.save(item);
+    }
+
+    private static List<Long> ids(ItemSearcher searcher, String query, Pageable page) {
+        return searcher.searchAvailable(query, page).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<Item> items) {
+        return items.stream()
+                .map(Item::getName)
+                .collect(Collectors.toList());
+    }
+}
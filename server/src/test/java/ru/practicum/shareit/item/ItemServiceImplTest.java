@@ -0,0 +1,306 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import ru.practicum.shareit.MutableClock;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.Status;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.CommentService;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static ru.practicum.shareit.TestEntities.booking;
+import static ru.practicum.shareit.TestEntities.item;
+import static ru.practicum.shareit.TestEntities.user;
+
+@SpringBootTest
+class ItemServiceImplTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemProperties itemProperties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemDetailsCache itemDetailsCache;
+
+    @Autowired
+    private MutableClock clock;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private User booker;
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        drill = itemRepository.save(item(owner, "Дрель"));
+        saw = itemRepository.save(item(owner, "Пила"));
+
+        bookingRepository.saveAll(List.of(
+                booking(drill, booker, now.minusDays(10), now.minusDays(9), Status.APPROVED),
+                booking(drill, booker, now.minusDays(5), now.minusDays(4), Status.APPROVED),
+                booking(drill, booker, now.minusDays(3), now.minusDays(2), Status.REJECTED),
+                booking(drill, booker, now.plusDays(3), now.plusDays(4), Status.APPROVED),
+                booking(drill, booker, now.plusDays(1), now.plusDays(2), Status.APPROVED),
+                booking(drill, booker, now.plusHours(1), now.plusHours(2), Status.WAITING)
+        ));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        clock.reset();
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getListFillsLastAndNextApprovedBookings() {
+        Map<Long, ItemDto> items = itemService.getList(owner.getId()).stream()
+                .collect(Collectors.toMap(ItemDto::getId, itemDto -> itemDto));
+
+        assertEquals(now.minusDays(5), items.get(drill.getId()).getLastBooking());
+        assertEquals(now.plusDays(1), items.get(drill.getId()).getNextBooking());
+        assertNull(items.get(saw.getId()).getLastBooking());
+        assertNull(items.get(saw.getId()).getNextBooking());
+    }
+
+    @Test
+    void retrieveShowsBookingsOnlyToOwner() {
+        ItemDto ownerView = itemService.retrieve(drill.getId(), owner.getId());
+        ItemDto bookerView = itemService.retrieve(drill.getId(), booker.getId());
+
+        assertEquals(now.minusDays(5), ownerView.getLastBooking());
+        assertEquals(now.plusDays(1), ownerView.getNextBooking());
+        assertNull(bookerView.getLastBooking());
+        assertNull(bookerView.getNextBooking());
+    }
+
+    @Test
+    void retrieveServesRepeatedRequestsFromCache() {
+        itemService.retrieve(drill.getId(), owner.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ItemDto ownerView = itemService.retrieve(drill.getId(), owner.getId());
+
+        assertEquals(now.plusDays(1), ownerView.getNextBooking());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void retrieveSeesCommittedChangesOfItemBookingsAndComments() {
+        itemService.retrieve(drill.getId(), owner.getId());
+        itemService.retrieve(drill.getId(), booker.getId());
+
+        ItemDto rename = new ItemDto();
+        rename.setName("Перфоратор");
+        itemService.update(rename, drill.getId(), owner.getId());
+        assertEquals("Перфоратор", itemService.retrieve(drill.getId(), booker.getId()).getName());
+
+        CommentCreateDto commentData = new CommentCreateDto();
+        commentData.setText("Мощный");
+        commentService.create(booker.getId(), drill.getId(), commentData);
+        assertEquals(List.of("Мощный"), itemService.retrieve(drill.getId(), booker.getId()).getComments().stream()
+                .map(CommentDto::getText)
+                .collect(Collectors.toList()));
+
+        BookingCreateDto bookingData = new BookingCreateDto();
+        bookingData.setItemId(drill.getId());
+        bookingData.setStart(now.plusHours(12));
+        bookingData.setEnd(now.plusHours(13));
+        Long bookingId = bookingService.create(booker.getId(), bookingData).getId();
+        bookingService.approve(owner.getId(), bookingId, true);
+        assertEquals(now.plusHours(12), itemService.retrieve(drill.getId(), owner.getId()).getNextBooking());
+    }
+
+    @Test
+    void retrieveRefreshesOwnerViewWhenNextBookingStarts() {
+        LocalDateTime start = now.plusHours(1);
+        bookingRepository.save(booking(saw, booker, start, start.plusHours(1), Status.APPROVED));
+
+        ItemDto beforeStart = itemService.retrieve(saw.getId(), owner.getId());
+        clock.advance(Duration.ofMinutes(61));
+        ItemDto afterStart = itemService.retrieve(saw.getId(), owner.getId());
+
+        assertNull(beforeStart.getLastBooking());
+        assertEquals(start, beforeStart.getNextBooking());
+        assertEquals(start, afterStart.getLastBooking());
+        assertNull(afterStart.getNextBooking());
+    }
+
+    @Test
+    void retrieveDoesNotCacheItemReadBeforeConcurrentUpdate() {
+        // Вещь прочитана до коммита переименования, а ответ из неё собран уже после сброса
+        long generation = itemDetailsCache.generation(drill.getId());
+        ItemDto stale = itemService.retrieve(drill.getId(), booker.getId());
+        ItemDto rename = new ItemDto();
+        rename.setName("Перфоратор");
+        itemService.update(rename, drill.getId(), owner.getId());
+        itemDetailsCache.get(drill.getId(), false, generation, () -> stale);
+
+        assertEquals("Перфоратор", itemService.retrieve(drill.getId(), booker.getId()).getName());
+    }
+
+    @Test
+    void getListQueryCountDoesNotDependOnItemCount() {
+        commentRepository.save(comment(drill, "Хорошая дрель", now.minusDays(1)));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Оба замера с пустым кэшем второго уровня, иначе второй вызов получит пользователя без запроса
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        itemService.getList(owner.getId());
+        long statementsForTwoItems = statistics.getPrepareStatementCount();
+
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Item item = itemRepository.save(item(owner, "Вещь " + i));
+            comments.add(comment(item, "Комментарий " + i, now.minusHours(i)));
+        }
+        commentRepository.saveAll(comments);
+
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        List<ItemDto> items = itemService.getList(owner.getId());
+
+        assertEquals(12, items.size());
+        assertEquals(statementsForTwoItems, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getListEmbedsOnlyRecentCommentsWhenLimited() {
+        commentRepository.saveAll(List.of(
+                comment(drill, "Первый", now.minusDays(3)),
+                comment(drill, "Второй", now.minusDays(2)),
+                comment(drill, "Третий", now.minusDays(1)),
+                comment(saw, "Единственный", now.minusDays(1))
+        ));
+
+        itemProperties.setListCommentsLimit(2);
+        try {
+            Map<Long, ItemDto> items = itemService.getList(owner.getId()).stream()
+                    .collect(Collectors.toMap(ItemDto::getId, itemDto -> itemDto));
+
+            assertEquals(List.of("Третий", "Второй"), items.get(drill.getId()).getComments().stream()
+                    .map(CommentDto::getText)
+                    .collect(Collectors.toList()));
+            assertEquals(1, items.get(saw.getId()).getComments().size());
+        } finally {
+            itemProperties.setListCommentsLimit(null);
+        }
+    }
+
+    @Test
+    void searchPagesResultsByRelevance() {
+        itemRepository.saveAll(List.of(
+                item(owner, "Отвёртка", "Дрельный привод"),
+                item(owner, "Набор", "Ударная дрель"),
+                item(owner, "Дрелька", "Маленькая")
+        ));
+
+        assertEquals(List.of("Дрель", "Дрелька", "Набор", "Отвёртка"), names(itemService.search("ДРЕЛЬ", 0, 10)));
+        assertEquals(List.of("Дрелька", "Набор"), names(itemService.search("дрель", 1, 2)));
+    }
+
+    @Test
+    void searchAndUpdateResponsesIncludeComments() {
+        commentRepository.save(comment(drill, "Хорошая дрель", now.minusDays(1)));
+
+        ItemDto found = itemService.search("дрель", 0, 10).getFirst();
+        ItemDto update = new ItemDto();
+        update.setDescription("Ударная дрель");
+        ItemDto updated = itemService.update(update, drill.getId(), owner.getId());
+
+        assertEquals(List.of("Хорошая дрель"), texts(found.getComments()));
+        assertEquals(List.of("Хорошая дрель"), texts(updated.getComments()));
+        assertEquals(List.of(), itemService.search("пила", 0, 10).getFirst().getComments());
+    }
+
+    private static List<String> names(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> texts(List<CommentDto> comments) {
+        return comments.stream()
+                .map(CommentDto::getText)
+                .collect(Collectors.toList());
+    }
+
+    private Comment comment(Item item, String text, LocalDateTime created) {
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setText(text);
+        comment.setCreated(created);
+        return comment;
+    }
+
+    @TestConfiguration
+    static class ClockConfiguration {
+        @Bean
+        @Primary
+        MutableClock mutableClock() {
+            return new MutableClock();
+        }
+    }
+}
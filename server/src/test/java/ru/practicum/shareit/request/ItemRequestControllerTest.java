@@ -7,8 +7,10 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.ResourceVersions;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -20,12 +22,14 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import static ru.practicum.shareit.Constant.OWNER_HEADER;
 
+@Import(ResourceVersions.class)
 @WebMvcTest(ItemRequestController.class)
 class ItemRequestControllerTest {
 
@@ -157,7 +161,7 @@ class ItemRequestControllerTest {
 
         @Test
         void getCommonListReturnsItemRequestList() throws Exception {
-                Mockito.when(itemRequestService.getCommonList()).thenReturn(List.of(itemRequestWithItemsDto));
+                Mockito.when(itemRequestService.getCommonList(any(), anyInt(), anyInt())).thenReturn(List.of(itemRequestWithItemsDto));
 
                 mockMvc.perform(get("/requests/all"))
                                 .andExpect(status().isOk())
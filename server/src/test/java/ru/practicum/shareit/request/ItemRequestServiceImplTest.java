@@ -0,0 +1,131 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.TestEntities.item;
+import static ru.practicum.shareit.TestEntities.request;
+import static ru.practicum.shareit.TestEntities.user;
+
+@SpringBootTest
+class ItemRequestServiceImplTest {
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User author;
+    private User other;
+
+    @BeforeEach
+    void init() {
+        author = userRepository.save(user("author"));
+        other = userRepository.save(user("other"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getCommonListExcludesOwnRequestsAndPagesByCreatedDesc() {
+        for (int i = 0; i < 5; i++) {
+            itemRequestRepository.save(request(other, "Чужой " + i, now.minusHours(i)));
+        }
+        itemRequestRepository.save(request(author, "Свой", now.plusHours(1)));
+
+        List<String> firstPage = descriptions(itemRequestService.getCommonList(author.getId(), 0, 2));
+        List<String> lastPage = descriptions(itemRequestService.getCommonList(author.getId(), 4, 2));
+
+        assertEquals(List.of("Чужой 0", "Чужой 1"), firstPage);
+        assertEquals(List.of("Чужой 4"), lastPage);
+        assertEquals("Свой", itemRequestService.getCommonList(null, 0, 1).getFirst().getDescription());
+    }
+
+    @Test
+    void getMyListFillsAnswerItems() {
+        ItemRequest answered = itemRequestRepository.save(request(author, "С ответом", now.minusDays(1)));
+        itemRequestRepository.save(request(author, "Без ответа", now));
+        itemRepository.save(item(other, "Дрель", answered));
+
+        List<ItemRequestDto> requests = itemRequestService.getMyList(author.getId());
+
+        assertEquals(List.of("Без ответа", "С ответом"), descriptions(requests));
+        assertTrue(requests.getFirst().getItems().isEmpty());
+        assertEquals(List.of("Дрель"), requests.get(1).getItems().stream()
+                .map(ItemDto::getName)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(), requests.get(1).getItems().getFirst().getComments());
+    }
+
+    @Test
+    void getCommonListQueryCountDoesNotDependOnRequestCount() {
+        ItemRequest first = itemRequestRepository.save(request(other, "Первый", now));
+        itemRepository.save(item(other, "Ответ", first));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Оба замера с пустым кэшем второго уровня, иначе второй вызов получит пользователя без запроса
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        itemRequestService.getCommonList(author.getId(), 0, 20);
+        long statementsForOneRequest = statistics.getPrepareStatementCount();
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ItemRequest itemRequest = itemRequestRepository.save(request(other, "Запрос " + i, now.minusHours(i)));
+            items.add(item(other, "Вещь " + i, itemRequest));
+        }
+        itemRepository.saveAll(items);
+
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        List<ItemRequestDto> requests = itemRequestService.getCommonList(author.getId(), 0, 20);
+
+        assertEquals(11, requests.size());
+        assertEquals(statementsForOneRequest, statistics.getPrepareStatementCount());
+    }
+
+    private static List<String> descriptions(List<ItemRequestDto> requests) {
+        return requests.stream()
+                .map(ItemRequestDto::getDescription)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserServiceImplTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserDto user;
+
+    @BeforeEach
+    void init() {
+        UserCreateDto userCreateDto = new UserCreateDto();
+        userCreateDto.setName("user");
+        userCreateDto.setEmail("user@example.com");
+        user = userService.create(userCreateDto);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void retrieveServesRepeatedReadsFromSecondLevelCache() {
+        userService.retrieve(user.getId());
+        statistics.clear();
+
+        userService.retrieve(user.getId());
+        assertTrue(userRepository.existsById(user.getId()));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void updateAndDeleteAreVisibleThroughCache() {
+        userService.retrieve(user.getId());
+
+        UserDto update = new UserDto();
+        update.setName("renamed");
+        userService.update(update, user.getId());
+        assertEquals("renamed", userService.retrieve(user.getId()).getName());
+
+        userService.delete(user.getId());
+        assertThrows(NotFoundException.class, () -> userService.retrieve(user.getId()));
+    }
+}